@@ -0,0 +1,81 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * [Auditing 비용 : datajpa.audit.fast]
+ * <p>
+ * <p>
+ * false : 엔티티마다 UUID.randomUUID() + LocalDateTime.now() + AuditingHandler
+ * true  : 스레드별 등록자 + CoarseClock + AuditListener 가 필드에 바로 기록, bulkInsert 는 배치 하나에 시각 하나
+ * <p>
+ * bulkInsert : 회원 BATCH 명 저장 (결과는 회원 한 명당 시간)
+ * persist    : 회원 BATCH 명 persist 후 롤백 (insert 없이 @PrePersist 까지의 비용, 4 스레드)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuditBenchmark {
+
+    static final int BATCH = 1000;
+
+    @Param({"false", "true"})
+    boolean fast;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    EntityManager em;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("datajpa.audit.fast=" + fast);
+        memberRepository = context.getBean(MemberRepository.class);
+        em = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long bulkInsert() {
+        return memberRepository.bulkInsert(IntStream.range(0, BATCH).mapToObj(i -> new Member("member" + i, i % 100)));
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(BATCH)
+    public void persist() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < BATCH; i++) {
+                em.persist(new Member("member" + i, i % 100));
+            }
+            em.clear();
+            status.setRollbackOnly();
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package study.datajpa.benchmark;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * [벤치마크용 스프링 컨텍스트]
+ * <p>
+ * 벤치마크마다 새로운 메모리 H2 데이터베이스로 애플리케이션을 띄운다.
+ * -> H2 서버(tcp://localhost)가 없어도 되고, 매번 같은 데이터로 측정할 수 있다.
+ * -> SQL 로그(p6spy, org.hibernate.SQL)는 측정값을 왜곡하므로 끈다.
+ */
+public final class BenchmarkContext {
+
+    /**
+     * 팀 하나에 소속된 회원 수
+     */
+    public static final int MEMBERS_PER_TEAM = 10;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * 내장 톰캣까지 띄운다. (server.port=0 : 빈 포트, local.server.port 로 확인)
+     */
+    public static ConfigurableApplicationContext startServer(String... properties) {
+        return start(WebApplicationType.SERVLET, properties);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        List<String> all = new ArrayList<>(Arrays.asList(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.open-in-view=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "decorator.datasource.p6spy.enable-logging=false",
+                "logging.level.root=warn",
+                "logging.level.org.hibernate.SQL=warn"));
+        all.addAll(Arrays.asList(properties));
+
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(webApplicationType)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(all.toArray(new String[0]))
+                .run();
+    }
+
+    /**
+     * 회원 size 명과 팀 size / MEMBERS_PER_TEAM 개를 저장한다.
+     * 회원 이름 : "member{번호}", 나이 : 번호 % 100
+     */
+    public static void seed(ConfigurableApplicationContext context, int size) {
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+
+        List<Team> teams = teamRepository.saveAll(IntStream.range(0, Math.max(size / MEMBERS_PER_TEAM, 1))
+                .mapToObj(i -> new Team("team" + i))
+                .collect(Collectors.toList()));
+        memberRepository.bulkInsert(IntStream.range(0, size)
+                .mapToObj(i -> new Member("member" + i, i % 100, teams.get(i % teams.size()))));
+    }
+}
@@ -0,0 +1,105 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.MemberAgeCoalescer;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [자주 올리는 카운터 : 요청마다 update vs 모아서 쓰기]
+ * <p>
+ * 8 스레드가 회원 HOT_MEMBERS 명 중 한 명의 나이를 1씩 올린다.
+ * direct    : 증가마다 "update member set age = age + 1 ... where member_id = ?" (auto commit 트랜잭션 하나)
+ * coalesced : MemberAgeCoalescer.add(), flush-interval(100ms)마다 회원별 update 한 번
+ * <p>
+ * coalesced 의 점수에는 백그라운드 flush 비용이 같은 CPU 를 나눠 쓰는 만큼만 반영된다.
+ * -> 반복(iteration)이 끝날 때 남은 값을 쓴다.
+ * -> 그때까지의 update 한 번당 증가 수(coalescing ratio)를 보조 지표(@AuxCounters)로 남긴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class CoalescedCounterBenchmark {
+
+    static final int HOT_MEMBERS = 8;
+
+    @Param({"direct", "coalesced"})
+    String mode;
+
+    ConfigurableApplicationContext context;
+    JdbcTemplate jdbcTemplate;
+    MemberAgeCoalescer coalescer;
+    long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "datajpa.pool.size=10",
+                "datajpa.coalescer.flush-interval=100ms");
+        BenchmarkContext.seed(context, HOT_MEMBERS);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        coalescer = context.getBean(MemberAgeCoalescer.class);
+        ids = context.getBean(MemberRepository.class).findAll().stream().mapToLong(Member::getId).toArray();
+    }
+
+    /**
+     * 시작부터 지금까지의 coalescing ratio (direct 는 0)
+     * EVENTS 는 모든 스레드의 값을 더하므로 첫 번째 스레드만 보고한다.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        private CoalescedCounterBenchmark benchmark;
+        private boolean first;
+
+        @Setup(Level.Iteration)
+        public void setUp(CoalescedCounterBenchmark benchmark, ThreadParams threadParams) {
+            this.benchmark = benchmark;
+            first = threadParams.getThreadIndex() == 0;
+        }
+
+        public double coalescingRatio() {
+            return first && "coalesced".equals(benchmark.mode) ? benchmark.coalescer.getCoalescingRatio() : 0;
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        if ("coalesced".equals(mode)) {
+            coalescer.flush();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void increment(Counters counters) {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        if ("direct".equals(mode)) {
+            jdbcTemplate.update("update member set age = age + 1, version = version + 1 where member_id = ?", id);
+        } else {
+            coalescer.add(id, 1);
+        }
+    }
+}
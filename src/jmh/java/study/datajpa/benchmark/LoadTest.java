@@ -0,0 +1,145 @@
+package study.datajpa.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * [부하 테스트 : 동기(MemberController) vs 비동기(AsyncMemberController)]
+ * <p>
+ * 내장 톰캣 + 메모리 H2 로 애플리케이션을 띄우고, 클라이언트 clients 개가 쉬지 않고 요청을 보낸다.
+ * 경로마다 warmup 초 동안 예열한 뒤 seconds 초 동안 처리량(req/s)과 응답 시간(p50, p99)을 잰다.
+ * 503(벌크헤드 초과)과 그 밖의 실패는 errors 로 따로 센다.
+ * <p>
+ * ./gradlew loadTest                                            -> 기본값 (clients 200, 10초)
+ * ./gradlew loadTest -PloadTestArgs="clients=500 seconds=20"    -> 옵션 변경
+ * 가상 스레드는 Java 21+ 로 실행해야 사용된다. (datajpa.async.executor=auto)
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = intArg(args, "clients", 200);
+        int seconds = intArg(args, "seconds", 10);
+        int warmup = intArg(args, "warmup", 3);
+        int size = intArg(args, "size", 10_000);
+        String query = "?size=" + intArg(args, "pageSize", 20);
+
+        ConfigurableApplicationContext context = BenchmarkContext.startServer(
+                "server.port=0",
+                "server.tomcat.threads.max=" + intArg(args, "tomcatThreads", 200));
+        try {
+            BenchmarkContext.seed(context, size);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            System.out.printf("java %s, clients %d, %ds%n", System.getProperty("java.version"), clients, seconds);
+            for (String path : Arrays.asList("/members", "/async/members")) {
+                URI uri = URI.create(baseUrl + path + query);
+                run(uri, clients, warmup);
+                Result result = run(uri, clients, seconds);
+                System.out.printf("%-16s %8.1f req/s   p50 %6.1f ms   p99 %6.1f ms   errors %d%n",
+                        path, result.requestsPerSecond(seconds), result.percentile(50), result.percentile(99), result.errors);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result run(URI uri, int clients, int seconds) throws Exception {
+        ExecutorService httpThreads = Executors.newFixedThreadPool(4);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(httpThreads)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService clientThreads = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(clientThreads.submit(() -> {
+                    Result result = new Result();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                result.add(System.nanoTime() - start);
+                            } else {
+                                result.errors++;
+                            }
+                        } catch (Exception e) {
+                            result.errors++;
+                        }
+                    }
+                    return result;
+                }));
+            }
+
+            Result total = new Result();
+            for (Future<Result> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } finally {
+            clientThreads.shutdown();
+            httpThreads.shutdown();
+        }
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return Integer.parseInt(arg.substring(name.length() + 1));
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * 성공한 요청의 응답 시간(나노초)과 실패 수
+     */
+    static class Result {
+
+        long[] latencies = new long[1024];
+        int count;
+        int errors;
+
+        void add(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+
+        double requestsPerSecond(int seconds) {
+            return (double) count / seconds;
+        }
+
+        double percentile(int percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
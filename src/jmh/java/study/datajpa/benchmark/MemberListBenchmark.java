@@ -0,0 +1,86 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.config.ReadOnlyRequestInterceptor;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.CountStrategy;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * [목록 조회 : 엔티티 -> DTO 변환 vs DTO 직접 조회]
+ * <p>
+ * 회원 10000 명(팀 1000 개), 한 페이지 2000 건, GET 요청처럼 읽기 전용 OSIV 세션에서 호출한다.
+ * entityThenMap : findPage() + page.map(MemberDto::new) -> 팀 이름을 읽을 때 팀을 지연 로딩한다.
+ * dtoProjection : findDtoPage() -> select new MemberDto(...) 쿼리 한번
+ * <p>
+ * 메모리 차이는 -prof gc 의 gc.alloc.rate.norm 으로 확인한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberListBenchmark {
+
+    static final Pageable PAGE = PageRequest.of(0, 2000, Sort.by(Sort.Direction.DESC, "username"));
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory emf;
+    MemberRepository memberRepository;
+    ReadOnlyRequestInterceptor interceptor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, 10_000);
+        emf = context.getBean(EntityManagerFactory.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        interceptor = new ReadOnlyRequestInterceptor(emf);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberDto> entityThenMap() throws Exception {
+        return inGetRequest(() -> memberRepository.findPage(PAGE, CountStrategy.CACHED).map(MemberDto::new));
+    }
+
+    @Benchmark
+    public Page<MemberDto> dtoProjection() throws Exception {
+        return inGetRequest(() -> memberRepository.findDtoPage(PAGE, CountStrategy.CACHED));
+    }
+
+    private Page<MemberDto> inGetRequest(Supplier<Page<MemberDto>> list) throws Exception {
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        try {
+            interceptor.preHandle(new MockHttpServletRequest("GET", "/members"), null, null);
+            return list.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+        }
+    }
+}
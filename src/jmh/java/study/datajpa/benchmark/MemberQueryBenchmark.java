@@ -0,0 +1,145 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * [리포지토리 조회 벤치마크]
+ * <p>
+ * size : 저장된 회원 수 (팀은 size / 10 개)
+ * 지연 로딩을 사용하는 벤치마크는 읽기 전용 트랜잭션 안에서 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberQueryBenchmark {
+
+    @Param({"1000", "10000"})
+    int size;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate readOnly;
+    List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, size);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        ids = memberRepository.findAll().stream().map(Member::getId).collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String randomUsername() {
+        return "member" + ThreadLocalRandom.current().nextInt(size);
+    }
+
+    /* ---------- 단건 조회 ---------- */
+
+    @Benchmark
+    public Object findById() {
+        return memberRepository.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    /* ---------- findByUsername : 메소드 이름 vs NamedQuery vs 순수 JPA ---------- */
+
+    @Benchmark
+    public Object findByUsernameDerived() {
+        return memberRepository.findListByUsername(randomUsername());
+    }
+
+    @Benchmark
+    public Object findByUsernameNamedQuery() {
+        return memberRepository.findByUsername(randomUsername());
+    }
+
+    @Benchmark
+    public Object findByUsernamePureJpa() {
+        return readOnly.execute(status -> memberJpaRepository.findByUsername(randomUsername()));
+    }
+
+    /* ---------- DTO 조회 vs 엔티티 조회 후 DTO 변환 ---------- */
+
+    @Benchmark
+    public List<MemberDto> findMemberDto() {
+        return memberRepository.findMemberDto();
+    }
+
+    @Benchmark
+    public List<MemberDto> findEntityThenMapToDto() {
+        return readOnly.execute(status -> memberRepository.findMemberFetchJoin().stream()
+                .map(m -> new MemberDto(m.getId(), m.getUsername(), m.getTeam().getName()))
+                .collect(Collectors.toList()));
+    }
+
+    /* ---------- 연관 엔티티 조회 : fetch join vs @EntityGraph vs 지연 로딩(N + 1) ---------- */
+
+    @Benchmark
+    public void fetchJoin(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> touchTeams(memberRepository.findMemberFetchJoin(), bh));
+    }
+
+    @Benchmark
+    public void entityGraph(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> touchTeams(memberRepository.findMemberEntityGraph(), bh));
+    }
+
+    @Benchmark
+    public void lazyLoading(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> touchTeams(memberRepository.findMemberCustom(), bh));
+    }
+
+    private void touchTeams(List<Member> members, Blackhole bh) {
+        for (Member member : members) {
+            bh.consume(member.getTeam().getName());
+        }
+    }
+
+    /* ---------- Page(count 쿼리 O) vs Slice(count 쿼리 X) ---------- */
+
+    @Benchmark
+    public Page<Member> page() {
+        return memberRepository.findByAge(ThreadLocalRandom.current().nextInt(100),
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "username")));
+    }
+
+    @Benchmark
+    public Slice<Member> slice() {
+        return memberRepository.findSliceByAge(ThreadLocalRandom.current().nextInt(100),
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "username")));
+    }
+}
@@ -0,0 +1,125 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+import study.datajpa.repository.support.OptimisticRetryExecutor;
+import study.datajpa.service.MemberService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [동시 수정 : 비관적 락 vs 낙관적 락 + 재시도]
+ * <p>
+ * 8 스레드가 회원 나이를 1씩 올린다. (트랜잭션 하나에 회원 한 명)
+ * pessimistic : MemberService.addAgeLocked (select ... for update)
+ * optimistic  : MemberService.addAge (@Version + @OptimisticRetry)
+ * <p>
+ * same      : 모든 스레드가 같은 회원을 수정한다. (최대 경합)
+ * different : 스레드마다 다른 회원을 수정한다. (경합 없음)
+ * <p>
+ * 반복(iteration)마다 작업 수(operations), 실패 수(aborts), 충돌 수(conflicts)를 보조 지표(@AuxCounters)로 남긴다.
+ * -> 비관적 락은 락 타임아웃, 낙관적 락은 최대 횟수까지 충돌한 작업이 실패다.
+ * -> 낙관적 락의 재시도 수 = conflicts - aborts (실패한 작업의 마지막 충돌은 재시도하지 않는다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(OptimisticLockBenchmark.THREADS)
+public class OptimisticLockBenchmark {
+
+    static final int THREADS = 8;
+
+    @Param({"pessimistic", "optimistic"})
+    String lock;
+
+    @Param({"same", "different"})
+    String rows;
+
+    ConfigurableApplicationContext context;
+    MemberService memberService;
+    OptimisticRetryExecutor retryExecutor;
+
+    volatile long conflictsBefore;
+
+    /**
+     * 스레드별 작업 수, 실패 수 (EVENTS : 모든 스레드의 합계를 결과에 남긴다)
+     * conflicts() 는 전체 스레드의 충돌 수라서 첫 번째 스레드만 보고한다.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long operations;
+        public long aborts;
+
+        private OptimisticLockBenchmark benchmark;
+        private boolean first;
+
+        @Setup(Level.Iteration)
+        public void reset(OptimisticLockBenchmark benchmark, ThreadParams threadParams) {
+            operations = 0;
+            aborts = 0;
+            this.benchmark = benchmark;
+            first = threadParams.getThreadIndex() == 0;
+        }
+
+        public long conflicts() {
+            return first ? benchmark.retryExecutor.getConflicts() - benchmark.conflictsBefore : 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Target {
+        String username;
+
+        @Setup(Level.Trial)
+        public void setUp(OptimisticLockBenchmark benchmark, ThreadParams threadParams) {
+            username = "same".equals(benchmark.rows) ? "member0" : "member" + threadParams.getThreadIndex();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 스레드마다 커넥션 하나 (커넥션 대기가 아닌 락 대기를 측정한다)
+        context = BenchmarkContext.start("datajpa.pool.size=" + (THREADS + 2));
+        BenchmarkContext.seed(context, THREADS * BenchmarkContext.MEMBERS_PER_TEAM);
+        memberService = context.getBean(MemberService.class);
+        retryExecutor = context.getBean(OptimisticRetryExecutor.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetConflicts() {
+        conflictsBefore = retryExecutor.getConflicts();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int addAge(Target target, Counters counters) {
+        counters.operations++;
+        try {
+            return "pessimistic".equals(lock)
+                    ? memberService.addAgeLocked(target.username, 1)
+                    : memberService.addAge(target.username, 1);
+        } catch (ConcurrencyFailureException e) {
+            // 락 타임아웃(비관적) 또는 재시도 횟수 초과(낙관적)
+            counters.aborts++;
+            return 0;
+        }
+    }
+}
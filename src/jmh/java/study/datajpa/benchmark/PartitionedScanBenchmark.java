@@ -0,0 +1,101 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * [전체 회원 읽기 : offset 페이징 vs 스트리밍 vs id 구간 병렬 조회]
+ * <p>
+ * 회원 100000 명(팀 10000 개)을 모두 읽어서 MemberDto 로 만든다.
+ * offsetPaging   : 페이지마다 트랜잭션을 열고 findAll(pageable) 을 500 건씩 마지막 페이지까지 (관리자 리포트의 기존 방식)
+ * streamAll      : 한 트랜잭션에서 커서로 한 건씩
+ * scanPartitionedN : id 구간 N 개를 작업 스레드 N 개(datajpa.scan.threads=4)로 동시에
+ * <p>
+ * 구간 병렬 조회는 CPU 코어와 커넥션이 구간 수 이상일 때 빨라진다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PartitionedScanBenchmark {
+
+    static final int PAGE_SIZE = 500;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("datajpa.scan.threads=4", "datajpa.scan.batch-size=" + PAGE_SIZE);
+        BenchmarkContext.seed(context, 100_000);
+        memberRepository = context.getBean(MemberRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long offsetPaging() {
+        long count = 0;
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by("id"));
+        while (true) {
+            Pageable current = pageable;
+            Page<MemberDto> page = transactionTemplate.execute(status ->
+                    memberRepository.findAll(current).map(MemberDto::new)); // 요청마다 한 페이지
+            count += page.getNumberOfElements();
+            if (!page.hasNext()) {
+                return count;
+            }
+            pageable = page.nextPageable();
+        }
+    }
+
+    @Benchmark
+    public long streamAll() {
+        return transactionTemplate.execute(status -> {
+            try (Stream<Member> members = memberRepository.streamAll(PAGE_SIZE)) {
+                return members.map(MemberDto::new).count();
+            }
+        });
+    }
+
+    @Benchmark
+    public long scanPartitioned1() {
+        return scan(1);
+    }
+
+    @Benchmark
+    public long scanPartitioned4() {
+        return scan(4);
+    }
+
+    private long scan(int partitions) {
+        try (Stream<MemberDto> members = memberRepository.scanPartitioned(partitions)) {
+            return members.count();
+        }
+    }
+}
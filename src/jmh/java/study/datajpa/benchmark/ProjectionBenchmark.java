@@ -0,0 +1,105 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSummary;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.repository.UsernameOnlyDto;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * [프로젝션 : 인터페이스 프록시 vs 클래스]
+ * <p>
+ * 이름이 같은 회원 ROWS 명을 조회하고 모든 getter 를 한번씩 읽는다. (읽기 전용 트랜잭션)
+ * interfaceProxy : findProjectionsByUsername (UsernameOnly 프록시)
+ * classDto       : findUsernameDtoByUsername (select new UsernameOnlyDto)
+ * nestedProxy    : findSummaryByUsername (MemberSummary 프록시 + 팀 엔티티 + TeamName 프록시)
+ * tuple          : findDtoByUsername (Tuple -> MemberDto 생성자, 팀 이름만 join)
+ * <p>
+ * -prof gc 로 행당 할당량(gc.alloc.rate.norm / ROWS)을 같이 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProjectionBenchmark {
+
+    static final int ROWS = 100_000;
+    static final String USERNAME = "projection";
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        Team team = context.getBean(TeamRepository.class).save(new Team("projectionTeam"));
+        memberRepository.bulkInsert(IntStream.range(0, ROWS).mapToObj(i -> new Member(USERNAME, i % 100, team)));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void interfaceProxy(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> {
+            for (UsernameOnly row : memberRepository.findProjectionsByUsername(USERNAME)) {
+                blackhole.consume(row.getUsername());
+            }
+        });
+    }
+
+    @Benchmark
+    public void classDto(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> {
+            for (UsernameOnlyDto row : memberRepository.findUsernameDtoByUsername(USERNAME)) {
+                blackhole.consume(row.getUsername());
+            }
+        });
+    }
+
+    @Benchmark
+    public void nestedProxy(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> {
+            for (MemberSummary row : memberRepository.findSummaryByUsername(USERNAME)) {
+                blackhole.consume(row.getId());
+                blackhole.consume(row.getUsername());
+                blackhole.consume(row.getTeam().getName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void tuple(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> {
+            for (MemberDto row : memberRepository.findDtoByUsername(USERNAME)) {
+                blackhole.consume(row.getId());
+                blackhole.consume(row.getUsername());
+                blackhole.consume(row.getTeamName());
+            }
+        });
+    }
+}
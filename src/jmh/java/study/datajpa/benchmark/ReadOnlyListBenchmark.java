@@ -0,0 +1,103 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.config.ReadOnlyRequestInterceptor;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.CountStrategy;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * [GET 요청 읽기 전용 세션 벤치마크]
+ * <p>
+ * 엔티티 페이징(findPage)을 OSIV 처럼 요청마다 세션을 열어서 호출한다. (한 페이지 2000 건)
+ * managed  : 기존 동작 (조회한 엔티티마다 스냅샷을 만든다)
+ * readOnly : ReadOnlyRequestInterceptor 적용 (스냅샷 없음)
+ * <p>
+ * listThenFlush : 같은 요청에서 쓰기 트랜잭션이 한번 커밋되는 경우 (flush 할 때 2000 건 변경 감지)
+ * 메모리 차이는 -prof gc 의 gc.alloc.rate.norm 으로 확인한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadOnlyListBenchmark {
+
+    static final Pageable PAGE = PageRequest.of(0, 2000, Sort.by(Sort.Direction.DESC, "username"));
+
+    @Param({"managed", "readOnly"})
+    String mode;
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory emf;
+    MemberRepository memberRepository;
+    ReadOnlyRequestInterceptor interceptor;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, 10_000);
+        emf = context.getBean(EntityManagerFactory.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        interceptor = new ReadOnlyRequestInterceptor(emf);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Member> list() throws Exception {
+        return inRequest(em -> {
+        });
+    }
+
+    @Benchmark
+    public Page<Member> listThenFlush() throws Exception {
+        return inRequest(em -> transactionTemplate.executeWithoutResult(status -> em.flush()));
+    }
+
+    /**
+     * OpenEntityManagerInViewInterceptor 처럼 세션을 열고 요청이 끝나면 닫는다.
+     */
+    private Page<Member> inRequest(Consumer<EntityManager> afterList) throws Exception {
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        try {
+            if ("readOnly".equals(mode)) {
+                interceptor.preHandle(new MockHttpServletRequest("GET", "/members"), null, null);
+            }
+            Page<Member> page = memberRepository.findPage(PAGE, CountStrategy.CACHED);
+            afterList.accept(em);
+            return page;
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+        }
+    }
+}
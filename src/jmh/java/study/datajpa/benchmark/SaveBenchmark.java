@@ -0,0 +1,128 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Item;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.ItemRepository;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * [저장 벤치마크]
+ * <p>
+ * 직접 할당한 식별자(Item) + Persistable.isNew() -> persist() (select 없이 insert)
+ * 직접 할당한 식별자(Item) + merge()             -> select 후 insert
+ * 시퀀스 식별자(Member)                         -> persist() (pooled-lo 로 시퀀스 호출이 50번에 1번)
+ * <p>
+ * *Batch : Item BATCH 건을 한번에 저장 (결과는 Item 한 건당 시간)
+ * <p>
+ * saveAllMembers : saveAll() 로 회원 MEMBER_BATCH 명 저장 (영속성 컨텍스트에 계속 쌓인다)
+ * bulkInsertMembers : bulkInsert() 로 회원 MEMBER_BATCH 명 저장 (batch_size 마다 flush/clear)
+ * (결과는 회원 한 명당 시간, 역수가 초당 저장 건수)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SaveBenchmark {
+
+    static final int BATCH = 100;
+    static final int MEMBER_BATCH = 2_000;
+
+    ConfigurableApplicationContext context;
+    ItemRepository itemRepository;
+    MemberRepository memberRepository;
+    EntityManager em;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        itemRepository = context.getBean(ItemRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        em = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Item saveWithPersistable() {
+        return itemRepository.save(new Item(UUID.randomUUID().toString()));
+    }
+
+    @Benchmark
+    public Item saveWithMerge() {
+        return transactionTemplate.execute(status -> em.merge(new Item(UUID.randomUUID().toString())));
+    }
+
+    @Benchmark
+    public Member saveWithSequence() {
+        return memberRepository.save(new Member("member", 10));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Item> saveAllBatch() {
+        return itemRepository.saveAll(newItems());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void mergeBatch() {
+        List<Item> items = newItems();
+        transactionTemplate.executeWithoutResult(status -> items.forEach(em::merge));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int upsertAllBatch() {
+        return itemRepository.upsertAll(newItems());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBER_BATCH)
+    public List<Member> saveAllMembers() {
+        return memberRepository.saveAll(newMembers().collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBER_BATCH)
+    public long bulkInsertMembers() {
+        return memberRepository.bulkInsert(newMembers());
+    }
+
+    private Stream<Member> newMembers() {
+        return IntStream.range(0, MEMBER_BATCH).mapToObj(i -> new Member("member" + i, i % 100));
+    }
+
+    private List<Item> newItems() {
+        List<Item> items = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            items.add(new Item(UUID.randomUUID().toString()));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [SQL 로그 비용 : p6spy 전체 로그 vs 프로파일러]
+ * <p>
+ * none     : SQL 로그 없음 (기준)
+ * p6spy    : 기본 설정처럼 모든 SQL 을 p6spy + org.hibernate.SQL 로 로그 파일에 쓴다.
+ * profiler : profiler 프로필처럼 모양별 통계 + 1% 샘플만 비동기로 로그 파일에 쓴다.
+ * <p>
+ * 로그는 콘솔이 아닌 build/benchmark-sql.log 에 쓴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SqlLoggingBenchmark {
+
+    @Param({"none", "p6spy", "profiler"})
+    String mode;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    long[] ids;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] logToFile = {"logging.file.name=build/benchmark-sql.log", "logging.pattern.console="};
+        if ("p6spy".equals(mode)) {
+            context = BenchmarkContext.start(logToFile[0], logToFile[1],
+                    "decorator.datasource.p6spy.enable-logging=true",
+                    "logging.level.p6spy=info",
+                    "logging.level.org.hibernate.SQL=debug");
+        } else if ("profiler".equals(mode)) {
+            context = BenchmarkContext.start(logToFile[0], logToFile[1],
+                    "datajpa.sql.profiler.enabled=true",
+                    "logging.level.study.datajpa.sql.sample=info");
+        } else {
+            context = BenchmarkContext.start();
+        }
+        BenchmarkContext.seed(context, 1000);
+        memberRepository = context.getBean(MemberRepository.class);
+        List<Member> members = memberRepository.findAll();
+        ids = members.stream().mapToLong(Member::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Member> findById() {
+        next = (next + 1) % ids.length;
+        return memberRepository.findById(ids[next]);
+    }
+}
@@ -0,0 +1,85 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [비동기 요청 처리 설정] (AsyncMemberController)
+ * <p>
+ * datajpa.async.executor
+ * - auto     : JVM 이 가상 스레드를 지원하면(Java 21+) 가상 스레드, 아니면 platform
+ * - virtual  : 요청마다 가상 스레드 (지원하지 않으면 애플리케이션 시작 실패)
+ * - platform : 고정 크기 스레드 풀 + 제한된 대기열
+ * <p>
+ * 소스는 Java 11 로 컴파일하므로 가상 스레드 API 는 MethodHandle 로 찾는다.
+ */
+@Slf4j
+@Configuration
+public class AsyncConfig {
+
+    @Bean
+    public RequestExecutor requestExecutor(DataSource dataSource,
+                                           @Value("${datajpa.async.executor:auto}") String executorType,
+                                           @Value("${datajpa.async.max-concurrency:0}") int maxConcurrency,
+                                           @Value("${datajpa.async.platform-threads:50}") int platformThreads,
+                                           @Value("${datajpa.async.queue-capacity:1000}") int queueCapacity,
+                                           @Value("${datajpa.async.acquire-timeout:5s}") Duration acquireTimeout) {
+        int concurrency = maxConcurrency > 0 ? maxConcurrency : connectionPoolSize(dataSource);
+
+        ExecutorService executor = "platform".equals(executorType) ? null : newVirtualThreadExecutor();
+        if (executor == null) {
+            if ("virtual".equals(executorType)) {
+                throw new IllegalStateException("가상 스레드를 지원하지 않는 JVM 입니다: " + System.getProperty("java.version"));
+            }
+            executor = new ThreadPoolExecutor(platformThreads, platformThreads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("request-"));
+        }
+        log.info("요청 실행기 : {}, 최대 동시 실행 {}", executor.getClass().getSimpleName(), concurrency);
+        return new RequestExecutor(executor, concurrency, acquireTimeout);
+    }
+
+    /**
+     * 커넥션 풀(HikariCP) 최대 크기 (p6spy 가 감싼 DataSource 도 unwrap 으로 찾는다)
+     */
+    private int connectionPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("커넥션 풀 크기를 알 수 없습니다.", e);
+        }
+        return 10; // HikariCP 기본값
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() (Java 21+), 없으면 null
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) factory.invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * [Auditing 설정] (BaseEntity, @EnableJpaAuditing(dateTimeProviderRef = "auditTimeProvider"))
+ * <p>
+ * datajpa.audit.fast
+ * - true  : 스레드마다 한번 만든 등록자/수정자 + CoarseClock(datajpa.audit.clock-resolution)
+ * - false : 엔티티마다 UUID.randomUUID() + 시스템 시계
+ * <p>
+ * UUID.randomUUID() 는 SecureRandom 을 사용한다. -> 동시에 저장하는 스레드가 많으면 SecureRandom 에서 경합한다.
+ * 실무에서는 세션 정보나, 스프링 시큐리티 로그인 정보에서 ID를 받는다.
+ */
+@Configuration
+public class AuditConfig {
+
+    @Value("${datajpa.audit.fast:true}")
+    private boolean fast;
+
+    /**
+     * BaseEntity 의 createdBy, lastModifiedBy 필드에 들어갈 정보
+     */
+    @Bean
+    public AuditorAware<String> auditorProvider() {
+        if (!fast) {
+            return () -> Optional.of(UUID.randomUUID().toString());
+        }
+        ThreadLocal<Optional<String>> auditor = ThreadLocal.withInitial(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return Optional.of(new UUID(random.nextLong(), random.nextLong()).toString());
+        });
+        return auditor::get;
+    }
+
+    @Bean
+    public Clock auditClock(@Value("${datajpa.audit.clock-resolution:10ms}") Duration resolution) {
+        return fast ? new CoarseClock(Clock.systemDefaultZone(), resolution) : Clock.systemDefaultZone();
+    }
+
+    @Bean
+    public AuditTimeProvider auditTimeProvider(Clock clock) {
+        return new AuditTimeProvider(clock);
+    }
+}
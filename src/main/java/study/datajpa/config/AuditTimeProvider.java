@@ -0,0 +1,77 @@
+package study.datajpa.config;
+
+import org.springframework.data.auditing.DateTimeProvider;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Optional;
+
+/**
+ * [Auditing 시각 (@CreatedDate, @LastModifiedDate)]
+ * <p>
+ * 기본 DateTimeProvider(CurrentDateTimeProvider)는 엔티티마다 LocalDateTime.now() 를 호출한다.
+ * -> 주입받은 Clock(기본 : CoarseClock)이 같은 Instant 를 반환하는 동안 만들어 둔 값을 재사용한다.
+ * -> 테스트에서는 Clock 빈을 바꿔서 시각을 고정할 수 있다.
+ * <p>
+ * [배치]
+ * batch() 를 연 스레드에서는 닫을 때까지 모든 엔티티에 같은 시각을 기록한다. (bulkInsert 한번 = 등록일 하나)
+ */
+public class AuditTimeProvider implements DateTimeProvider {
+
+    private final Clock clock;
+    private final ThreadLocal<Optional<TemporalAccessor>> batchTime = new ThreadLocal<>();
+    private volatile Now last;
+
+    public AuditTimeProvider(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<TemporalAccessor> getNow() {
+        Optional<TemporalAccessor> pinned = batchTime.get();
+        if (pinned != null) {
+            return pinned;
+        }
+        return now();
+    }
+
+    private Optional<TemporalAccessor> now() {
+        Instant instant = clock.instant();
+        Now current = last;
+        if (current == null || !current.instant.equals(instant)) {
+            current = new Now(instant, Optional.of(LocalDateTime.ofInstant(instant, clock.getZone())));
+            last = current;
+        }
+        return current.now;
+    }
+
+    /**
+     * 닫을 때까지 현재 스레드의 Auditing 시각을 지금 시각으로 고정한다. (이미 열려 있으면 바깥 배치의 시각을 사용)
+     */
+    public Batch batch() {
+        if (batchTime.get() != null) {
+            return () -> {
+            };
+        }
+        batchTime.set(now());
+        return batchTime::remove;
+    }
+
+    public interface Batch extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private static class Now {
+        private final Instant instant;
+        private final Optional<TemporalAccessor> now;
+
+        private Now(Instant instant, Optional<TemporalAccessor> now) {
+            this.instant = instant;
+            this.now = now;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * [저해상도 시계]
+ * <p>
+ * resolution 동안 같은 Instant 객체를 반환한다. (System.nanoTime() 으로 경과 시간만 확인)
+ * -> 엔티티마다 시스템 시각을 읽고 Instant 를 새로 만들지 않는다.
+ * -> 반환하는 시각은 실제 시각보다 최대 resolution 만큼 늦다.
+ */
+public class CoarseClock extends Clock {
+
+    private final Clock clock;
+    private final long resolutionNanos;
+    private volatile Tick tick;
+
+    public CoarseClock(Clock clock, Duration resolution) {
+        this.clock = clock;
+        this.resolutionNanos = resolution.toNanos();
+    }
+
+    @Override
+    public Instant instant() {
+        long nanos = System.nanoTime();
+        Tick current = tick;
+        if (current == null || nanos - current.nanos >= resolutionNanos) {
+            current = new Tick(nanos, clock.instant());
+            tick = current;
+        }
+        return current.instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return clock.getZone();
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new CoarseClock(clock.withZone(zone), Duration.ofNanos(resolutionNanos));
+    }
+
+    private static class Tick {
+        private final long nanos;
+        private final Instant instant;
+
+        private Tick(long nanos, Instant instant) {
+            this.nanos = nanos;
+            this.instant = instant;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * [커넥션 풀 크기]
+ * <p>
+ * datajpa.pool.size 가 0 이면 (CPU 코어 수 * 2) + 1 로 정한다. (HikariCP 권장 공식, 디스크 1개 기준)
+ * -> 커넥션이 많을수록 빨라지지 않는다. DB 가 동시에 처리할 수 있는 수보다 많으면 DB 안에서 대기할 뿐이다.
+ * -> 최소 유휴 커넥션도 같은 값으로 맞춰 고정 크기 풀로 사용한다. (트래픽이 몰릴 때 커넥션을 새로 만들지 않는다)
+ * <p>
+ * spring.datasource.hikari.* 바인딩이 끝난 뒤, 풀이 시작되기 전(첫 getConnection)에 적용된다.
+ * (p6spy 가 DataSource 를 감싸기 전이므로 postProcessBeforeInitialization 에서 처리한다)
+ */
+@Slf4j
+@Component
+public class ConnectionPoolSizer implements BeanPostProcessor, Ordered {
+
+    private final int poolSize;
+
+    public ConnectionPoolSizer(@Value("${datajpa.pool.size:0}") int poolSize) {
+        this.poolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors() * 2 + 1;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource) {
+            HikariDataSource dataSource = (HikariDataSource) bean;
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setMinimumIdle(poolSize);
+            log.info("커넥션 풀 크기 : {} ({})", poolSize, dataSource.getPoolName());
+        }
+        return bean;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,98 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * [엔티티 파라미터 일괄 조회]
+ * <p>
+ * 컨트롤러 메소드의 엔티티 타입 @PathVariable, @RequestParam (List<Member> 같은 컬렉션 포함) 에 들어올 id 를
+ * 파라미터를 변환하기 전에 모두 모아서 엔티티 타입별로 findAllById 한번으로 조회한다. (RequestEntityCache)
+ * -> 이후 도메인 클래스 컨버터는 캐시에서 꺼내기만 한다.
+ */
+@RequiredArgsConstructor
+public class EntityPrefetchInterceptor implements HandlerInterceptor {
+
+    private final RequestEntityCache requestEntityCache;
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+
+        Map<Class<?>, List<String>> ids = new LinkedHashMap<>();
+        for (MethodParameter parameter : ((HandlerMethod) handler).getMethodParameters()) {
+            Class<?> domainType = domainType(parameter);
+            if (domainType == null || !requestEntityCache.supports(domainType)) {
+                continue;
+            }
+            List<String> values = rawValues(request, parameter);
+            if (!values.isEmpty()) {
+                ids.computeIfAbsent(domainType, type -> new ArrayList<>()).addAll(values);
+            }
+        }
+        ids.forEach(requestEntityCache::prefetch);
+        return true;
+    }
+
+    /**
+     * Member, List<Member> -> Member
+     */
+    private Class<?> domainType(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        if (Collection.class.isAssignableFrom(type)) {
+            type = ResolvableType.forMethodParameter(parameter).asCollection().resolveGeneric(0);
+        }
+        return type == null || type.isPrimitive() || type.getName().startsWith("java.") ? null : type;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> rawValues(HttpServletRequest request, MethodParameter parameter) {
+        parameter.initParameterNameDiscovery(parameterNameDiscoverer);
+
+        PathVariable pathVariable = parameter.getParameterAnnotation(PathVariable.class);
+        if (pathVariable != null) {
+            Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            String value = variables == null ? null : variables.get(name(pathVariable.name(), parameter));
+            return value == null ? Collections.emptyList() : Collections.singletonList(value);
+        }
+
+        RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+        if (requestParam != null) {
+            String[] values = request.getParameterValues(name(requestParam.name(), parameter));
+            if (values == null) {
+                return Collections.emptyList();
+            }
+            List<String> ids = new ArrayList<>();
+            for (String value : values) {
+                Collections.addAll(ids, StringUtils.commaDelimitedListToStringArray(value)); // ids=1,2,3
+            }
+            return ids;
+        }
+        return Collections.emptyList();
+    }
+
+    private String name(String annotated, MethodParameter parameter) {
+        return StringUtils.hasText(annotated) ? annotated : parameter.getParameterName();
+    }
+}
@@ -0,0 +1,45 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * [조회 요청은 읽기 전용 세션]
+ * <p>
+ * OSIV 가 켜져 있으면 요청이 끝날 때까지 영속성 컨텍스트(세션)가 하나 유지된다.
+ * 트랜잭션 밖에서 조회한 엔티티나 지연 로딩한 엔티티도 스냅샷을 만들고 변경 감지 대상이 된다.
+ * <p>
+ * GET, HEAD 요청은 시작할 때 세션을 읽기 전용 + FlushMode.MANUAL 로 바꾼다.
+ * -> 요청 안에서 조회하는 모든 엔티티의 스냅샷을 만들지 않고, flush 하지 않는다.
+ * -> GET 요청에서 엔티티를 수정해도 데이터베이스에 반영되지 않는다.
+ * <p>
+ * OSIV 인터셉터가 세션을 연 뒤에 실행되어야 한다. (WebConfig 에서 순서를 지정한다)
+ * OSIV 가 꺼져 있으면 아무것도 하지 않는다. (리포지토리의 읽기 전용 트랜잭션만 적용된다)
+ */
+@RequiredArgsConstructor
+public class ReadOnlyRequestInterceptor implements HandlerInterceptor {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        if (holder != null) {
+            Session session = holder.getEntityManager().unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+        }
+        return true;
+    }
+}
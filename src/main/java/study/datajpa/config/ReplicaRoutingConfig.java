@@ -0,0 +1,166 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * [복제본 라우팅 설정] datajpa.replica.urls 가 있을 때만 사용한다.
+ * <p>
+ * spring.datasource 로 만든 primary 풀(HikariDataSource)을
+ * LazyConnectionDataSourceProxy(p6spy(ReplicaRoutingDataSource(primary, 복제본 풀들))) 로 바꾼다.
+ * -> 복제본 풀은 primary 풀의 설정(크기, 계정, 타임아웃)을 복사하고 url, 풀 이름만 바꾼다. (읽기 전용 커넥션)
+ * -> p6spy 가 DataSource 를 감싸기 전에 라우터로 바꾸므로 복제본에서 실행한 SQL 도 로그, SQL 실행 횟수에 포함된다.
+ * -> LazyConnectionDataSourceProxy 는 p6spy 가 감싼 뒤에 씌운다.
+ * (p6spy 는 커넥션을 가져올 때 getMetaData() 를 호출하므로 안쪽에 두면 트랜잭션 시작 시점(readOnly 설정 전)에 복제본을 고른다)
+ * -> unwrap(HikariDataSource.class) 은 primary 풀을 반환한다. (/stats/pool, hikaricp 메트릭)
+ * <p>
+ * 영속성 컨텍스트(OSIV)가 트랜잭션보다 오래 살아 있으므로 커넥션은 트랜잭션이 끝나면 반환한다.
+ * -> 그대로 두면 요청에서 처음 가져온 커넥션(복제본일 수 있다)을 다음 트랜잭션도 사용한다.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datajpa.replica.urls:}'.isEmpty()")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(
+            @Value("${datajpa.replica.urls}") String[] urls,
+            @Value("${datajpa.replica.balance:ROUND_ROBIN}") ReplicaRoutingDataSource.Balance balance,
+            @Value("${datajpa.replica.read-after-write:1s}") Duration readAfterWrite,
+            @Value("${datajpa.replica.max-lag:5s}") Duration maxLag,
+            @Value("${datajpa.replica.lag-query:}") String lagQuery,
+            @Value("${datajpa.replica.check-interval:5s}") Duration checkInterval,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ReplicaRoutingPostProcessor(urls, balance, readAfterWrite, maxLag, lagQuery, checkInterval, meterRegistry);
+    }
+
+    @Bean
+    public static LazyConnectionPostProcessor lazyConnectionPostProcessor() {
+        return new LazyConnectionPostProcessor();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    @Slf4j
+    public static class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+        private final String[] urls;
+        private final ReplicaRoutingDataSource.Balance balance;
+        private final Duration readAfterWrite;
+        private final Duration maxLag;
+        private final String lagQuery;
+        private final Duration checkInterval;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final List<ReplicaRoutingDataSource> routers = new ArrayList<>();
+
+        ReplicaRoutingPostProcessor(String[] urls, ReplicaRoutingDataSource.Balance balance, Duration readAfterWrite,
+                                    Duration maxLag, String lagQuery, Duration checkInterval,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+            this.urls = urls;
+            this.balance = balance;
+            this.readAfterWrite = readAfterWrite;
+            this.maxLag = maxLag;
+            this.lagQuery = lagQuery;
+            this.checkInterval = checkInterval;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource)) {
+                return bean;
+            }
+            HikariDataSource primary = (HikariDataSource) bean;
+            List<HikariDataSource> replicas = new ArrayList<>();
+            for (int i = 0; i < urls.length; i++) {
+                replicas.add(replica(primary, urls[i].trim(), i));
+            }
+
+            ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(primary, replicas, balance, readAfterWrite);
+            router.startChecks(lagQuery, maxLag, checkInterval);
+            routers.add(router);
+            log.info("복제본 {}개로 읽기 전용 트랜잭션을 라우팅합니다. ({})", replicas.size(), balance);
+            return router;
+        }
+
+        private HikariDataSource replica(HikariDataSource primary, String url, int index) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setJdbcUrl(url);
+            config.setPoolName(primary.getPoolName() + "-replica-" + index);
+            config.setReadOnly(true);
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+            return new HikariDataSource(config);
+        }
+
+        /**
+         * p6spy 가 DataSource 를 감싸기(LOWEST_PRECEDENCE - 10) 전에 실행한다.
+         */
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE - 20;
+        }
+
+        @Override
+        public void destroy() {
+            routers.forEach(ReplicaRoutingDataSource::close);
+        }
+    }
+
+    /**
+     * p6spy 가 감싼 라우터를 LazyConnectionDataSourceProxy 로 감싼다. (첫 SQL 을 실행할 때 라우팅)
+     */
+    public static class LazyConnectionPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            if (!(bean instanceof DataSource) || bean instanceof LazyConnectionDataSourceProxy) {
+                return bean;
+            }
+            try {
+                if (!((DataSource) bean).isWrapperFor(ReplicaRoutingDataSource.class)) {
+                    return bean;
+                }
+            } catch (SQLException e) {
+                throw new BeanInitializationException(beanName + " 을 확인할 수 없습니다.", e);
+            }
+            return new LazyConnectionDataSourceProxy((DataSource) bean);
+        }
+
+        /**
+         * p6spy 가 DataSource 를 감싼(LOWEST_PRECEDENCE - 10) 뒤에 실행한다.
+         */
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * [읽기/쓰기 DataSource 라우팅]
+ * <p>
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))의 커넥션은 복제본 풀에서, 나머지는 primary 풀에서 가져온다.
+ * -> 트랜잭션의 readOnly 는 커넥션을 가져온 뒤에 정해지므로 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ * (첫 SQL 을 실행할 때 커넥션을 가져온다)
+ * <p>
+ * [복제본 선택] (datajpa.replica.balance)
+ * ROUND_ROBIN       : 정상인 복제본을 순서대로
+ * LEAST_CONNECTIONS : 사용 중인 커넥션이 가장 적은 복제본
+ * <p>
+ * [복제 지연 허용] 복제본은 primary 보다 늦게 반영된다.
+ * -> read-after-write : 쓰기 트랜잭션을 커밋한 스레드는 이 시간 동안 읽기도 primary 에서 한다. (방금 쓴 값을 읽을 수 있다)
+ * -> max-lag, lag-query : check-interval 마다 복제본에서 lag-query(지연 초)를 실행해서 max-lag 보다 늦거나 실패한 복제본은 제외한다.
+ * (lag-query 가 없으면 연결만 확인한다)
+ * -> 정상인 복제본이 없으면 primary 에서 읽는다.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    public enum Balance {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Balance balance;
+    private final long readAfterWriteNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService checker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+                                    Balance balance, Duration readAfterWrite) {
+        this.primary = primary;
+        replicas.forEach(replica -> this.replicas.add(new Replica(replica)));
+        this.balance = balance;
+        this.readAfterWriteNanos = readAfterWrite.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTarget().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTarget().getConnection(username, password);
+    }
+
+    DataSource determineTarget() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (readAfterWriteNanos > 0 && TransactionSynchronizationManager.isActualTransactionActive()) {
+                registerWrite();
+            }
+            return primary;
+        }
+        if (readAfterWriteNanos > 0) {
+            Long written = lastWrite.get();
+            if (written != null && System.nanoTime() - written < readAfterWriteNanos) {
+                return primary;
+            }
+            lastWrite.remove();
+        }
+        HikariDataSource replica = selectReplica();
+        return replica == null ? primary : replica;
+    }
+
+    /**
+     * 쓰기 트랜잭션이 끝난 시각을 기록한다. (커밋 전에는 복제본에 반영될 수 없으므로 끝난 시각부터 센다)
+     */
+    private void registerWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    lastWrite.set(System.nanoTime());
+                }
+            }
+        });
+    }
+
+    /**
+     * 현재 스레드의 read-after-write 기록을 지운다. (테스트)
+     */
+    void clearLastWrite() {
+        lastWrite.remove();
+    }
+
+    private HikariDataSource selectReplica() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (balance == Balance.LEAST_CONNECTIONS) {
+            Replica least = healthy.get(0);
+            for (Replica replica : healthy) {
+                if (replica.activeConnections() < least.activeConnections()) {
+                    least = replica;
+                }
+            }
+            return least.dataSource;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size())).dataSource;
+    }
+
+    /**
+     * interval 마다 복제본 상태를 확인한다.
+     *
+     * @param lagQuery 복제 지연(초)을 반환하는 SQL, 비어 있으면 연결만 확인한다.
+     */
+    public void startChecks(String lagQuery, Duration maxLag, Duration interval) {
+        checker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-check-"));
+        checker.scheduleWithFixedDelay(() -> checkReplicas(lagQuery, maxLag),
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkReplicas(String lagQuery, Duration maxLag) {
+        for (Replica replica : replicas) {
+            boolean healthy = replica.check(lagQuery, maxLag);
+            if (healthy != replica.healthy) {
+                log.warn("복제본 {} : {}", replica.dataSource.getPoolName(), healthy ? "복구" : "제외");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    /**
+     * primary 의 인터페이스(HikariDataSource 등)로 unwrap 한다. (커넥션 풀 통계, 메트릭)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    public List<HikariDataSource> getReplicas() {
+        List<HikariDataSource> result = new ArrayList<>();
+        replicas.forEach(replica -> result.add(replica.dataSource));
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        replicas.forEach(replica -> replica.dataSource.close());
+        if (primary instanceof HikariDataSource) {
+            ((HikariDataSource) primary).close();
+        }
+    }
+
+    private static class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * 풀이 아직 시작되지 않았으면 0
+         */
+        private int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+
+        private boolean check(String lagQuery, Duration maxLag) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (!StringUtils.hasText(lagQuery)) {
+                    return connection.isValid(1);
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery(lagQuery)) {
+                    double lagSeconds = rs.next() ? rs.getDouble(1) : 0;
+                    return lagSeconds * 1000 <= maxLag.toMillis();
+                }
+            } catch (SQLException e) {
+                log.debug("복제본 {} 확인 실패 : {}", dataSource.getPoolName(), e.getMessage());
+                return false;
+            }
+        }
+    }
+}
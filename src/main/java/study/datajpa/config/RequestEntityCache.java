@@ -0,0 +1,150 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.core.EntityInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * [요청 범위 엔티티 캐시] (id -> 엔티티)
+ * <p>
+ * 도메인 클래스 컨버터(@PathVariable("id") Member member)는 파라미터마다 findById 를 호출한다.
+ * -> 같은 요청에서 같은 id 를 여러 번 변환하거나, 여러 id 를 변환하면 조회(트랜잭션)를 반복한다.
+ * <p>
+ * prefetch() 로 요청에 들어 있는 id 를 엔티티 타입별로 모아서 findAllById 한번으로 조회하고,
+ * get() 은 캐시에 있으면 그대로, 없으면 findById 로 조회해서 캐시에 넣는다. (없는 id 는 null)
+ * 캐시는 HTTP 요청 속성에 보관하므로 요청이 끝나면 사라진다. (요청 밖에서는 캐시 없이 조회한다)
+ * <p>
+ * 조회한 엔티티는 OSIV 영속성 컨텍스트에서 분리(detach)한다. -> 변경해도 반영되지 않는 조회용 객체다.
+ */
+public class RequestEntityCache {
+
+    private static final String ATTRIBUTE = RequestEntityCache.class.getName();
+
+    private final ListableBeanFactory beanFactory;
+    private final EntityManager em;
+    private final ConversionService idConversionService = DefaultConversionService.getSharedInstance();
+    private volatile Repositories repositories;
+
+    public RequestEntityCache(ListableBeanFactory beanFactory, EntityManager em) {
+        this.beanFactory = beanFactory;
+        this.em = em;
+    }
+
+    public boolean supports(Class<?> domainType) {
+        return repositories().hasRepositoryFor(domainType);
+    }
+
+    /**
+     * 아직 캐시에 없는 id 만 모아서 한번에 조회한다. (id 로 변환할 수 없는 값은 건너뛴다)
+     */
+    public void prefetch(Class<?> domainType, Collection<String> rawIds) {
+        Map<Object, Object> cache = cache(domainType);
+        if (cache == null) {
+            return;
+        }
+        EntityInformation<Object, Object> information = repositories().getEntityInformationFor(domainType);
+        Set<Object> ids = new LinkedHashSet<>();
+        for (String rawId : rawIds) {
+            Object id;
+            try {
+                id = toId(information, rawId);
+            } catch (ConversionException e) {
+                continue; // 변환 오류(400)는 파라미터 바인딩에서 알린다.
+            }
+            if (id != null && !cache.containsKey(id)) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        for (Object entity : repository(domainType).findAllById(ids)) {
+            Object id = information.getId(entity);
+            cache.put(id, detach(entity));
+            ids.remove(id);
+        }
+        ids.forEach(id -> cache.put(id, null)); // 없는 id 도 다시 조회하지 않는다.
+    }
+
+    public Object get(Class<?> domainType, String rawId) {
+        Object id = toId(repositories().getEntityInformationFor(domainType), rawId);
+        if (id == null) {
+            return null;
+        }
+        Map<Object, Object> cache = cache(domainType);
+        if (cache == null) {
+            return repository(domainType).findById(id).orElse(null);
+        }
+        if (!cache.containsKey(id)) {
+            cache.put(id, repository(domainType).findById(id).map(this::detach).orElse(null));
+        }
+        return cache.get(id);
+    }
+
+    private Object detach(Object entity) {
+        if (em.contains(entity)) {
+            em.detach(entity);
+        }
+        return entity;
+    }
+
+    private Object toId(EntityInformation<Object, Object> information, String rawId) {
+        if (!StringUtils.hasText(rawId)) {
+            return null;
+        }
+        return idConversionService.convert(rawId.trim(), information.getIdType());
+    }
+
+    /**
+     * 현재 요청의 domainType 캐시 (요청 밖이면 null)
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> cache(Class<?> domainType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Class<?>, Map<Object, Object>> caches =
+                (Map<Class<?>, Map<Object, Object>>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (caches == null) {
+            caches = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, caches, RequestAttributes.SCOPE_REQUEST);
+        }
+        return caches.computeIfAbsent(domainType, type -> new HashMap<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private CrudRepository<Object, Object> repository(Class<?> domainType) {
+        Optional<Object> repository = repositories().getRepositoryFor(domainType);
+        return (CrudRepository<Object, Object>) repository
+                .orElseThrow(() -> new IllegalArgumentException("리포지토리가 없는 타입입니다: " + domainType.getName()));
+    }
+
+    /**
+     * 리포지토리 빈은 처음 사용할 때 찾는다. (WebMvc 설정 중에는 아직 만들어지지 않았을 수 있다)
+     */
+    private Repositories repositories() {
+        Repositories current = repositories;
+        if (current == null) {
+            current = new Repositories(beanFactory);
+            repositories = current;
+        }
+        return current;
+    }
+}
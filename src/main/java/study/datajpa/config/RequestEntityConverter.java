@@ -0,0 +1,41 @@
+package study.datajpa.config;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.ConditionalGenericConverter;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * [도메인 클래스 컨버터 + 요청 범위 캐시]
+ * <p>
+ * String(id) -> 엔티티 변환을 RequestEntityCache 로 처리한다.
+ * 엔티티 타입마다 (String, 엔티티) 쌍으로 등록하므로 모든 타입에 등록되는 스프링 데이터 DomainClassConverter 보다 먼저 선택된다.
+ */
+public class RequestEntityConverter implements ConditionalGenericConverter {
+
+    private final RequestEntityCache requestEntityCache;
+    private final Set<ConvertiblePair> convertibleTypes;
+
+    public RequestEntityConverter(RequestEntityCache requestEntityCache, Set<Class<?>> entityTypes) {
+        this.requestEntityCache = requestEntityCache;
+        this.convertibleTypes = entityTypes.stream()
+                .map(type -> new ConvertiblePair(String.class, type))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Set<ConvertiblePair> getConvertibleTypes() {
+        return convertibleTypes;
+    }
+
+    @Override
+    public boolean matches(TypeDescriptor sourceType, TypeDescriptor targetType) {
+        return requestEntityCache.supports(targetType.getType());
+    }
+
+    @Override
+    public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+        return source == null ? null : requestEntityCache.get(targetType.getType(), (String) source);
+    }
+}
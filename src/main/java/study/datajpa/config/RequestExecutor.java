@@ -0,0 +1,90 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * [요청 처리 실행기 + 벌크헤드]
+ * <p>
+ * 컨트롤러가 작업을 넘기면 별도의 스레드(가상 스레드 또는 제한된 스레드 풀)에서 실행하고 CompletableFuture 를 반환한다.
+ * -> 톰캣 워커 스레드는 JDBC 응답을 기다리지 않고 바로 반환된다.
+ * <p>
+ * [벌크헤드]
+ * 동시에 실행하는 작업 수를 maxConcurrency(기본 : 커넥션 풀 크기)로 제한한다.
+ * -> 가상 스레드는 개수 제한이 없으므로 제한하지 않으면 커넥션을 기다리는 스레드가 끝없이 쌓인다.
+ * -> acquireTimeout 안에 자리가 나지 않거나 대기열이 가득 차면 503 으로 응답한다. (커넥션 풀 타임아웃보다 먼저 실패)
+ */
+@Slf4j
+public class RequestExecutor implements DisposableBean {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+
+    public RequestExecutor(ExecutorService executor, int maxConcurrency, Duration acquireTimeout) {
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(task, future));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(overloaded());
+        }
+        return future;
+    }
+
+    private <T> void run(Supplier<T> task, CompletableFuture<T> future) {
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                future.completeExceptionally(overloaded());
+                return;
+            }
+            future.complete(task.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            if (acquired) {
+                permits.release();
+            }
+        }
+    }
+
+    private ResponseStatusException overloaded() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "동시 요청이 너무 많습니다. (최대 " + maxConcurrency + ")");
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,68 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import java.util.stream.Collectors;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory emf;
+    private final ListableBeanFactory beanFactory;
+
+    /**
+     * GET, HEAD 요청을 읽기 전용 세션으로 처리할지 여부
+     */
+    @Value("${datajpa.web.read-only-get:true}")
+    private boolean readOnlyGet;
+
+    /**
+     * 도메인 클래스 컨버터 조회를 요청 범위로 캐시하고 일괄 조회할지 여부
+     */
+    @Value("${datajpa.web.entity-lookup-cache:true}")
+    private boolean entityLookupCache;
+
+    private RequestEntityCache requestEntityCache;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (readOnlyGet) {
+            // OSIV 인터셉터(order 0)보다 뒤에 실행한다.
+            registry.addInterceptor(new ReadOnlyRequestInterceptor(emf))
+                    .order(Ordered.LOWEST_PRECEDENCE);
+        }
+        if (entityLookupCache) {
+            // 읽기 전용 세션으로 바꾼 뒤에 조회한다. (같은 order 는 등록 순서대로 실행)
+            registry.addInterceptor(new EntityPrefetchInterceptor(requestEntityCache()))
+                    .order(Ordered.LOWEST_PRECEDENCE);
+        }
+    }
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        if (entityLookupCache) {
+            registry.addConverter(new RequestEntityConverter(requestEntityCache(),
+                    emf.getMetamodel().getEntities().stream()
+                            .map(EntityType::getJavaType)
+                            .collect(Collectors.toSet())));
+        }
+    }
+
+    private RequestEntityCache requestEntityCache() {
+        if (requestEntityCache == null) {
+            requestEntityCache = new RequestEntityCache(beanFactory, SharedEntityManagerCreator.createSharedEntityManager(emf));
+        }
+        return requestEntityCache;
+    }
+}
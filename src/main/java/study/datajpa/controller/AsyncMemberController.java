@@ -0,0 +1,58 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.config.RequestExecutor;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.CountStrategy;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * [비동기 회원 조회]
+ * <p>
+ * MemberController 와 같은 조회를 RequestExecutor 에서 실행하고 CompletableFuture 로 반환한다.
+ * -> 서블릿 비동기 처리 : 톰캣 워커 스레드는 바로 반환되고, 결과가 나오면 응답을 다시 디스패치한다.
+ * -> 동시 실행 수는 커넥션 풀 크기로 제한된다. (넘치면 503)
+ * <p>
+ * [주의]
+ * 작업은 요청 스레드가 아닌 다른 스레드에서 실행되므로 OSIV 세션을 사용할 수 없다.
+ * -> 지연 로딩이 필요 없는 DTO 를 트랜잭션 안(리포지토리)에서 만들어 반환해야 한다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class AsyncMemberController {
+
+    private final MemberRepository memberRepository;
+    private final RequestExecutor requestExecutor;
+
+    @Value("${datajpa.count.strategy:CACHED}")
+    private CountStrategy countStrategy;
+
+    @GetMapping("/async/members/{id}")
+    public CompletableFuture<String> findMember(@PathVariable("id") Long id) {
+        return requestExecutor.submit(() -> memberRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND))
+                .getUsername());
+    }
+
+    /**
+     * "/async/members?page=0&size=12" -> MemberController.list() 와 같은 결과
+     */
+    @GetMapping("/async/members")
+    public CompletableFuture<Page<MemberDto>> list(
+            @PageableDefault(size = 12, sort = "username",
+                    direction = Sort.Direction.DESC) Pageable pageable) {
+        return requestExecutor.submit(() -> memberRepository.findDtoPage(pageable, countStrategy));
+    }
+}
@@ -0,0 +1,72 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.CacheRegionStatsDto;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * [2차 캐시 통계]
+ * "/stats/cache" -> 리전별 hit/miss/put/eviction 수
+ * <p>
+ * hit 비율이 낮거나 eviction 이 많으면 application.conf 에서 리전 크기와 만료 시간을 조정한다.
+ * (datajpa.cache.enabled=true 일 때만 통계가 수집된다)
+ */
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+    private final EntityManagerFactory emf;
+
+    @GetMapping("/stats/cache")
+    public List<CacheRegionStatsDto> cacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Long> evictions = jcacheEvictions();
+
+        List<CacheRegionStatsDto> result = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            result.add(new CacheRegionStatsDto(
+                    region,
+                    regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(),
+                    regionStatistics.getElementCountInMemory(),
+                    evictions.getOrDefault(region, 0L)));
+        }
+        return result;
+    }
+
+    /**
+     * JCache 는 캐시별 통계를 "javax.cache:type=CacheStatistics,CacheManager=..,Cache={리전}" MBean 으로 제공한다.
+     */
+    private Map<String, Long> jcacheEvictions() {
+        Map<String, Long> evictions = new HashMap<>();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (ObjectName name : server.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+                Object count = server.getAttribute(name, "CacheEvictions");
+                evictions.merge(name.getKeyProperty("Cache"), ((Number) count).longValue(), Long::sum);
+            }
+        } catch (JMException e) {
+            // 통계를 구할 수 없으면 eviction 수는 0 으로 표시한다.
+        }
+        return evictions;
+    }
+}
@@ -2,24 +2,49 @@ package study.datajpa.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.CursorResult;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.CountStrategy;
+import study.datajpa.service.MemberExportService;
 
 import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
+
+    /**
+     * 목록 조회에서 totalCount 를 구하는 방법 (application.yml 의 datajpa.count.strategy)
+     */
+    @Value("${datajpa.count.strategy:CACHED}")
+    private CountStrategy countStrategy;
 
 //    @PostConstruct
 //    public void init() {
@@ -42,6 +67,7 @@ public class MemberController {
      * 단, 오직 조회용으로만 사용해야 한다.
      * 도메인 클래스 컨버터로 엔티티를 파라미터로 받으면, 이 엔티티는 단순 조회용으로만 사용해야 한다.
      * (트랜잭션이 없는 범위에서 엔티티를 조회했으므로, 엔티티를 변경해도 DB에 반영되지 않는다.)
+     * -> datajpa.web.entity-lookup-cache 면 영속성 컨텍스트에서 분리된(detached) 엔티티를 받는다. (RequestEntityCache)
      * <p>
      * 권장하지 않는다.
      */
@@ -50,6 +76,19 @@ public class MemberController {
         return member.getUsername(); // member 값을 변경해도 DB에 반영되지 않는다.
     }
 
+    /**
+     * [여러 회원을 도메인 클래스 컨버터로 받기]
+     * "/members2/usernames?ids=1,2,3" 또는 "?ids=1&ids=2"
+     * -> 요청의 id 를 모아서 findAllById 한번으로 조회한다. (EntityPrefetchInterceptor, RequestEntityCache)
+     * -> 없는 id 는 null 로 변환된다.
+     */
+    @GetMapping("/members2/usernames")
+    public List<String> findMembers2(@RequestParam("ids") List<Member> members) {
+        return members.stream()
+                .map(member -> member == null ? null : member.getUsername())
+                .collect(Collectors.toList());
+    }
+
 
     /**
      * Web 확장 - 페이징과 정렬
@@ -69,12 +108,20 @@ public class MemberController {
      *
      * @PageableDefault 어노테이션을 사용하면 된다.
      * 우선순위가 글로벌 설정보다 높다.
+     * <p>
+     * [count 쿼리]
+     * findAll(pageable) 은 페이지를 조회할 때마다 count 쿼리를 실행한다.
+     * -> findDtoPage(pageable, countStrategy) 로 count 결과를 캐시하거나 추정치를 사용한다.
+     * <p>
+     * [DTO 조회]
+     * 엔티티를 그대로 반환하면 JSON 으로 변환하면서 team 을 지연 로딩(N + 1)하고, 엔티티 생성 비용도 든다.
+     * -> 필요한 컬럼만 MemberDto 로 바로 조회한다.
      */
     @GetMapping("/members")
-    public Page<Member> list(
+    public Page<MemberDto> list(
             @PageableDefault(size = 12, sort = "username",
                     direction = Sort.Direction.DESC) Pageable pageable) {
-        return memberRepository.findAll(pageable);
+        return memberRepository.findDtoPage(pageable, countStrategy);
     }
 
     /**
@@ -87,19 +134,96 @@ public class MemberController {
      * /members?member_page=0&order_page=1
      */
     @GetMapping("/members2")
-    public Page<Member> list2
+    public Page<MemberDto> list2
     (@Qualifier("member") Pageable memberPageable,
      @Qualifier("order") Pageable orderPageable) {
-        return memberRepository.findAll(memberPageable);
+        return memberRepository.findDtoPage(memberPageable, countStrategy);
     }
 
     /**
      * Page 내용을 DTO로 변환하기
+     * <p>
+     * Page<Member> page = memberRepository.findPage(pageable, countStrategy);
+     * Page<MemberDto> pageDto = page.map(MemberDto::new);
+     * -> 엔티티를 만든 뒤 변환하지 않고 처음부터 DTO 로 조회한다.
      */
     @GetMapping("/members3")
     public Page<MemberDto> list3(Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
-        Page<MemberDto> pageDto = page.map(MemberDto::new);
-        return pageDto;
+        return memberRepository.findDtoPage(pageable, countStrategy);
+    }
+
+    /**
+     * [키셋(커서) 페이징]
+     * <p>
+     * [요청 파라미터]
+     * "/members/keyset?size=12" -> 첫 페이지
+     * "/members/keyset?size=12&cursor={nextCursor}" -> 다음 페이지
+     * "/members/keyset?age=10&size=12&cursor={nextCursor}" -> 나이가 10 인 회원만 (무한 스크롤)
+     * <p>
+     * "/members?page=5000" 같은 offset 페이징은 앞의 데이터를 모두 읽고 버리고, count 쿼리도 매번 나간다.
+     * 키셋 페이징은 이전 응답의 nextCursor 다음부터 조회하므로 페이지가 깊어져도 속도가 일정하다.
+     * (list() 의 기본 정렬과 같은 username desc 순서, 같은 username 은 id desc)
+     */
+    @GetMapping("/members/keyset")
+    public CursorResult<MemberDto> keyset(
+            @RequestParam(value = "age", required = false) Integer age,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "12") int size) {
+        MemberCursor memberCursor = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                memberCursor = MemberCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        }
+
+        int limit = Math.min(Math.max(size, 1), maxPageSize);
+        Slice<Member> slice = age == null
+                ? memberRepository.findKeysetPage(memberCursor, limit)
+                : memberRepository.findKeysetPageByAge(age, memberCursor, limit);
+        List<Member> content = slice.getContent();
+        String nextCursor = slice.hasNext()
+                ? MemberCursor.of(content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorResult<>(slice.map(MemberDto::new).getContent(), nextCursor);
+    }
+
+    /**
+     * [Slice 페이징]
+     * "/members/slice?age=10&page=0&size=12"
+     * -> size + 1 개를 조회해서 hasNext 만 알려준다. (count 쿼리 없음, 더보기 버튼)
+     * -> page 번호로 이동하므로 깊은 페이지는 /members/keyset 을 사용한다.
+     */
+    @GetMapping("/members/slice")
+    public Slice<MemberDto> slice(
+            @RequestParam("age") int age,
+            @PageableDefault(size = 12, sort = "username",
+                    direction = Sort.Direction.DESC) Pageable pageable) {
+        return memberRepository.findSliceByAge(age, pageable).map(MemberDto::new);
+    }
+
+    /**
+     * [회원 전체 내보내기]
+     * "/members/export" -> NDJSON (한 줄에 회원 하나)
+     * "/members/export?format=csv" -> CSV
+     * <p>
+     * StreamingResponseBody : 컨트롤러가 반환한 뒤 별도 스레드에서 응답 OutputStream 에 직접 쓴다.
+     * -> 조회한 회원을 한 건씩 바로 응답으로 내보내므로 회원 수와 상관없이 메모리 사용량이 일정하다.
+     */
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .body(memberExportService::exportCsv);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(memberExportService::exportNdjson);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "지원하지 않는 format 입니다: " + format);
     }
 }
@@ -0,0 +1,60 @@
+package study.datajpa.controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.PoolStatsDto;
+import study.datajpa.dto.TimerStatsDto;
+import study.datajpa.monitor.SqlStatementTimer;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * [커넥션 풀 통계]
+ * "/stats/pool" -> 커넥션 풀 상태, 커넥션 획득 시간, SQL 종류별 실행 시간
+ * <p>
+ * pending 이 계속 0 보다 크고 acquire 가 statements 보다 길면 풀이 부족하다. (요청이 커넥션을 기다리는 중)
+ * acquire 는 짧은데 usage 가 statements 보다 훨씬 길면 커넥션을 빌린 채 SQL 이 아닌 일을 하고 있다.
+ * <p>
+ * 원본 메트릭 : /actuator/metrics/hikaricp.connections.*, /actuator/metrics/jdbc.statements
+ */
+@RestController
+@RequiredArgsConstructor
+public class PoolStatsController {
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @GetMapping("/stats/pool")
+    public PoolStatsDto poolStats() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        String poolName = hikari.getPoolName();
+
+        Map<String, TimerStatsDto> statements = new TreeMap<>();
+        for (Timer timer : meterRegistry.find(SqlStatementTimer.METRIC).timers()) {
+            String type = timer.getId().getTag("type");
+            String key = "error".equals(timer.getId().getTag("outcome")) ? type + ":error" : type;
+            statements.put(key, TimerStatsDto.of(timer));
+        }
+
+        return new PoolStatsDto(
+                poolName,
+                hikari.getMaximumPoolSize(),
+                pool == null ? 0 : pool.getActiveConnections(),
+                pool == null ? 0 : pool.getIdleConnections(),
+                pool == null ? 0 : pool.getThreadsAwaitingConnection(),
+                pool == null ? 0 : pool.getTotalConnections(),
+                hikari.getLeakDetectionThreshold(),
+                TimerStatsDto.of(meterRegistry.find("hikaricp.connections.acquire").tag("pool", poolName).timer()),
+                TimerStatsDto.of(meterRegistry.find("hikaricp.connections.usage").tag("pool", poolName).timer()),
+                statements);
+    }
+}
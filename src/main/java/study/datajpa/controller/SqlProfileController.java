@@ -0,0 +1,43 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.SqlShapeStatsDto;
+import study.datajpa.monitor.SqlProfiler;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * [SQL 프로파일 통계] (datajpa.sql.profiler.enabled=true 일 때만)
+ * <p>
+ * "/stats/sql" -> 전체 실행 시간이 긴 SQL 20개
+ * "/stats/sql?sort=SLOWEST&limit=10" -> 평균 실행 시간이 긴 SQL 10개
+ * "/stats/sql?sort=FREQUENT" -> 자주 실행되는 SQL
+ * DELETE "/stats/sql" -> 통계 초기화
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.sql.profiler.enabled", havingValue = "true")
+public class SqlProfileController {
+
+    private final SqlProfiler sqlProfiler;
+
+    @GetMapping("/stats/sql")
+    public List<SqlShapeStatsDto> top(
+            @RequestParam(value = "sort", defaultValue = "TOTAL") SqlProfiler.Sort sort,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return sqlProfiler.top(sort, Math.max(limit, 1)).stream()
+                .map(SqlShapeStatsDto::new)
+                .collect(Collectors.toList());
+    }
+
+    @DeleteMapping("/stats/sql")
+    public void reset() {
+        sqlProfiler.reset();
+    }
+}
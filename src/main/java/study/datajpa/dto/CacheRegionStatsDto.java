@@ -0,0 +1,20 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 2차 캐시 리전별 통계
+ * hit/miss/put/elementCount : Hibernate Statistics
+ * evictionCount : JCache 통계 (크기 초과, 만료로 제거된 수)
+ */
+@Data
+@AllArgsConstructor
+public class CacheRegionStatsDto {
+    private String region;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long elementCountInMemory;
+    private long evictionCount;
+}
@@ -0,0 +1,26 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * [커서 기반 조회 결과]
+ * content : 조회된 데이터
+ * nextCursor : 다음 페이지를 조회할 때 넘겨줄 토큰 (마지막 페이지면 null)
+ * <p>
+ * Page 와 달리 전체 데이터 수(totalCount)를 제공하지 않는다. -> count 쿼리가 필요 없다.
+ */
+@Getter
+public class CursorResult<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorResult(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+}
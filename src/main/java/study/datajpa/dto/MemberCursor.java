@@ -0,0 +1,62 @@
+package study.datajpa.dto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * [키셋(커서) 페이징 위치 정보]
+ * <p>
+ * 정렬 조건 (username desc, id desc) 에서 마지막으로 조회한 회원의 값을 담는다.
+ * -> 다음 페이지는 "이 값보다 뒤에 있는 회원" 을 조회한다. (offset 을 사용하지 않는다)
+ * <p>
+ * 클라이언트에게는 내부 구조를 알 수 없도록 Base64 로 인코딩한 토큰(opaque token)으로 전달한다.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class MemberCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        if (username == null || id == null) {
+            throw new IllegalArgumentException("username, id 는 null 일 수 없습니다.");
+        }
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    /**
+     * "id:username" 형태로 만든 뒤 URL 에 그대로 사용할 수 있도록 인코딩한다.
+     * (username 에 ':' 가 들어가도 첫번째 구분자로 나누므로 문제가 없다)
+     */
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + username;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String token) {
+        String raw;
+        Long id;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            id = Long.valueOf(raw.substring(0, Math.max(raw.indexOf(SEPARATOR), 0)));
+        } catch (IllegalArgumentException e) { // NumberFormatException 포함
+            throw new IllegalArgumentException("잘못된 커서입니다: " + token, e);
+        }
+        return new MemberCursor(raw.substring(raw.indexOf(SEPARATOR) + 1), id);
+    }
+}
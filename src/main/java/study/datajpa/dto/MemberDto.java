@@ -15,9 +15,12 @@ public class MemberDto {
     /**
      * 엔티티는 DTO를 보면 안되지만
      * DTO는 엔티티를 봐도 괜찮다
+     * <p>
+     * team 이 지연 로딩이면 팀 이름을 읽을 때 쿼리가 나간다. (목록은 fetch join 이나 DTO 조회를 사용한다)
      */
     public MemberDto(Member member) {
         this.id = member.getId();
         this.username = member.getUsername();
+        this.teamName = member.getTeam() == null ? null : member.getTeam().getName();
     }
 }
@@ -0,0 +1,27 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 커넥션 풀 상태와 SQL 실행 시간
+ * active/idle/pending/total : 지금 사용 중 / 유휴 / 커넥션을 기다리는 스레드 / 전체 커넥션 수
+ * acquire : 커넥션 획득에 걸린 시간, usage : 커넥션을 빌려서 반환할 때까지의 시간
+ * statements : SQL 종류별 실행 시간 (p6spy, 실패한 SQL 은 "{종류}:error")
+ */
+@Data
+@AllArgsConstructor
+public class PoolStatsDto {
+    private String poolName;
+    private int maximumPoolSize;
+    private int active;
+    private int idle;
+    private int pending;
+    private int total;
+    private long leakDetectionThresholdMs;
+    private TimerStatsDto acquire;
+    private TimerStatsDto usage;
+    private Map<String, TimerStatsDto> statements;
+}
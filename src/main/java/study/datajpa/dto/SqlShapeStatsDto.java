@@ -0,0 +1,31 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import study.datajpa.monitor.SqlShapeStats;
+
+/**
+ * SQL 모양별 실행 통계 (단위 : ms)
+ * p99Ms : 2의 거듭제곱 구간의 상한 (근삿값)
+ */
+@Data
+@AllArgsConstructor
+public class SqlShapeStatsDto {
+    private String shape;
+    private long count;
+    private long errors;
+    private double totalMs;
+    private double meanMs;
+    private double maxMs;
+    private double p99Ms;
+
+    public SqlShapeStatsDto(SqlShapeStats stats) {
+        this(stats.getShape(), stats.getCount(), stats.getErrors(),
+                toMillis(stats.getTotalNanos()), toMillis(stats.getMeanNanos()),
+                toMillis(stats.getMaxNanos()), toMillis(stats.getPercentileNanos(0.99)));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
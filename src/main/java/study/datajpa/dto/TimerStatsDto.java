@@ -0,0 +1,38 @@
+package study.datajpa.dto;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer 타이머 요약 (단위 : ms)
+ * maxMs : 최근 구간(기본 2분)의 최댓값
+ * p99Ms : management.metrics.distribution.percentiles 에 0.99 가 설정된 경우만 (없으면 -1)
+ */
+@Data
+@AllArgsConstructor
+public class TimerStatsDto {
+    private long count;
+    private double meanMs;
+    private double maxMs;
+    private double p99Ms;
+
+    public static TimerStatsDto of(Timer timer) {
+        if (timer == null) {
+            return new TimerStatsDto(0, 0, 0, -1);
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        double p99 = -1;
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            if (percentile.percentile() == 0.99) {
+                p99 = percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return new TimerStatsDto(snapshot.count(), snapshot.mean(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS), p99);
+    }
+}
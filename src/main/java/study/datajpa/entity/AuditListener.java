@@ -0,0 +1,78 @@
+package study.datajpa.entity;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * [Auditing 리스너] (BaseTimeEntity, BaseEntity)
+ * <p>
+ * AuditingEntityListener 는 엔티티마다 AuditingHandler 가 엔티티를 감싸서(BeanWrapper)
+ * @CreatedDate, @LastModifiedBy 필드를 찾고 값을 필드 타입으로 변환해서 넣는다.
+ * -> datajpa.audit.fast 면 BaseTimeEntity, BaseEntity 의 필드에 바로 넣는다.
+ * -> 아니면 AuditingEntityListener 와 같이 AuditingHandler 에 맡긴다.
+ * <p>
+ * 하이버네이트가 스프링 빈으로 생성한다. (SpringBeanContainer)
+ * EntityManagerFactory 를 만드는 중에 생성되므로 필요한 빈은 처음 사용할 때 찾는다.
+ */
+public class AuditListener {
+
+    private final boolean fast;
+    private final ObjectProvider<AuditingHandler> auditingHandler;
+    private final ObjectProvider<DateTimeProvider> dateTimeProvider;
+    private final ObjectProvider<AuditorAware<String>> auditorAware;
+
+    public AuditListener(@Value("${datajpa.audit.fast:true}") boolean fast,
+                         ObjectProvider<AuditingHandler> auditingHandler,
+                         ObjectProvider<DateTimeProvider> dateTimeProvider,
+                         ObjectProvider<AuditorAware<String>> auditorAware) {
+        this.fast = fast;
+        this.auditingHandler = auditingHandler;
+        this.dateTimeProvider = dateTimeProvider;
+        this.auditorAware = auditorAware;
+    }
+
+    @PrePersist
+    public void touchForCreate(Object target) {
+        if (!fast) {
+            auditingHandler.getObject().markCreated(target);
+            return;
+        }
+        if (target instanceof BaseTimeEntity) {
+            ((BaseTimeEntity) target).stampCreated(now());
+        }
+        if (target instanceof BaseEntity) {
+            ((BaseEntity) target).stampCreatedBy(auditor());
+        }
+    }
+
+    @PreUpdate
+    public void touchForUpdate(Object target) {
+        if (!fast) {
+            auditingHandler.getObject().markModified(target);
+            return;
+        }
+        if (target instanceof BaseTimeEntity) {
+            ((BaseTimeEntity) target).stampModified(now());
+        }
+        if (target instanceof BaseEntity) {
+            ((BaseEntity) target).stampModifiedBy(auditor());
+        }
+    }
+
+    private LocalDateTime now() {
+        TemporalAccessor now = dateTimeProvider.getObject().getNow().orElseThrow();
+        return now instanceof LocalDateTime ? (LocalDateTime) now : LocalDateTime.from(now);
+    }
+
+    private String auditor() {
+        return auditorAware.getObject().getCurrentAuditor().orElse(null);
+    }
+}
@@ -5,11 +5,10 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.Column;
-import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 /**
@@ -18,7 +17,6 @@ import java.time.LocalDateTime;
  * JpaBaseEntity 보다 간결해진다.
  * -> 엔티티 클래스에 extends한다
  */
-@EntityListeners(AuditingEntityListener.class)
 @MappedSuperclass
 @Getter
 public class BaseEntity extends BaseTimeEntity {
@@ -32,7 +30,7 @@ public class BaseEntity extends BaseTimeEntity {
 
     /**
      * createdBy, lastModifiedBy
-     * -> DataJpaApplication 에서 Bean을 등록해야 동작한다.
+     * -> AuditorAware Bean을 등록해야 동작한다. (AuditConfig)
      */
     @CreatedBy
     @Column(updatable = false)
@@ -40,4 +38,25 @@ public class BaseEntity extends BaseTimeEntity {
 
     @LastModifiedBy
     private String lastModifiedBy;
+
+    /**
+     * [낙관적 락]
+     * 수정할 때 "update ... set version = version + 1 where id = ? and version = ?" 로 실행한다.
+     * -> 다른 트랜잭션이 먼저 수정했으면 수정된 행이 0 이므로 ObjectOptimisticLockingFailureException (@OptimisticRetry 로 다시 시도)
+     * -> 조회할 때 락을 잡지 않으므로 같은 행을 수정하는 트랜잭션이 서로 기다리지 않는다. (충돌하면 늦게 커밋한 쪽이 실패)
+     * 벌크 수정(JPQL, JDBC)은 버전을 직접 올려야 한다.
+     * <p>
+     * null 이면 새로운 엔티티로 판단한다. (save() -> persist)
+     */
+    @Version
+    private Long version;
+
+    void stampCreatedBy(String auditor) {
+        createdBy = auditor;
+        lastModifiedBy = auditor;
+    }
+
+    void stampModifiedBy(String auditor) {
+        lastModifiedBy = auditor;
+    }
 }
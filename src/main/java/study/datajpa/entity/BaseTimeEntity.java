@@ -5,14 +5,16 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 import java.time.LocalDateTime;
 
-@EntityListeners(AuditingEntityListener.class)
+/**
+ * 등록일, 수정일 -> AuditListener 가 채운다. (datajpa.audit.fast 가 false 면 AuditingHandler 가 @CreatedDate, @LastModifiedDate 를 보고 채운다)
+ */
+@EntityListeners(AuditListener.class)
 @MappedSuperclass
 @Getter
 public class BaseTimeEntity {
@@ -23,4 +25,13 @@ public class BaseTimeEntity {
 
     @LastModifiedDate
     private LocalDateTime lastModifiedDate;
+
+    void stampCreated(LocalDateTime now) {
+        createdDate = now;
+        lastModifiedDate = now;
+    }
+
+    void stampModified(LocalDateTime now) {
+        lastModifiedDate = now;
+    }
 }
@@ -1,6 +1,10 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -21,15 +25,32 @@ import javax.persistence.*;
  * <p>
  * NamedQuery의 장점
  * -> JPQL 문법이 잘못되면 어플리케이션 로딩 시점에 에러를 발생시킨다. (오타를 잡을 수 있다)
+ * <p>
+ * [2차 캐시]
+ * 쿼리 캐시(findByUsername)는 결과 엔티티의 식별자만 저장한다.
+ * -> Member 도 2차 캐시에 있어야 식별자로 다시 조회하는 쿼리가 나가지 않는다.
+ * <p>
+ * [인덱스] (스키마 자동 생성에 사용, QueryPlanTest 가 EXPLAIN 으로 사용 여부를 확인한다)
+ * order by 가 없는 조회 결과의 순서는 DB 가 고른 인덱스를 따른다. (순서가 필요하면 order by 를 명시한다)
+ * idx_member_username     : username 조회, in 목록 조회, 기본 정렬(username desc)과 키셋 페이징(username desc, id desc)
+ * idx_member_age_username : age 조회 + username 정렬 페이징, 나이 조건 키셋 페이징(age = ?, username desc, id desc), age 범위 벌크 수정
+ * idx_member_team         : 팀의 회원 조회 (Team.members 지연 로딩, 배치 페치)
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username desc, member_id desc"),
+        @Index(name = "idx_member_age_username", columnList = "age, username desc, member_id desc"),
+        @Index(name = "idx_member_team", columnList = "team_id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"}) // ToString 메소드에서 출력할 변수 설정
 @NamedQuery(
         name = "Member.findByUsername",
-        query = "select m from Member m where m.username = :username"
+        query = "select m from Member m where m.username = :username order by m.id" // 같은 이름은 저장 순서대로
 )
 //@NamedEntityGraph(
 //        name = "Member.all",
@@ -37,8 +58,23 @@ import javax.persistence.*;
 //)
 public class Member extends BaseEntity {
 
+    /**
+     * [시퀀스 + pooled-lo 최적화]
+     * 시퀀스를 한번 호출할 때 식별자 50개를 미리 할당받아서 메모리에서 사용한다.
+     * -> save() 할 때마다 시퀀스를 호출하지 않는다.
+     * -> insert 전에 식별자를 알 수 있으므로 JDBC 배치 insert 가 가능하다. (IDENTITY 전략은 불가능)
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(
+            name = "member_seq",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "member_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            }
+    )
     @Column(name = "member_id")
     private Long id;
 
@@ -1,25 +1,59 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * [2차 캐시]
+ * Team 은 조회가 대부분이고 변경은 거의 없다.
+ * -> @Cacheable + @Cache 로 2차 캐시 대상으로 지정한다. (application.yml 의 datajpa.cache.enabled 로 켠다)
+ * -> 영속성 컨텍스트(1차 캐시)는 트랜잭션 단위지만, 2차 캐시는 애플리케이션 전체에서 공유한다.
+ * <p>
+ * READ_WRITE : 수정 중인 엔티티는 락을 걸어서 다른 트랜잭션이 오래된 값을 읽지 않도록 한다.
+ * 캐시 크기와 만료 시간은 application.conf 의 리전(region) 설정을 따른다.
+ * <p>
+ * [배치 페치] (hibernate.default_batch_fetch_size = datajpa.batch.fetch-size)
+ * 팀 목록에서 team.getMembers() 를 처음 사용하면 영속성 컨텍스트에 있는 다른 팀의 members 도 함께 초기화한다.
+ * -> select ... from member where team_id in (?, ?, ...) : 팀 N 개 -> select N / fetch-size 번
+ * -> 회원 목록에서 member.getTeam() 프록시를 초기화할 때도 같은 방식으로 팀을 묶어서 조회한다.
+ * <p>
+ * @Fetch(FetchMode.SUBSELECT) 는 사용하지 않는다.
+ * -> 처음 조회한 쿼리를 서브쿼리로 다시 실행하는데, 페이징(limit/offset)은 서브쿼리에 포함되지 않아서 전체 팀의 회원을 읽는다.
+ */
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 @Getter
 @Setter
 @ToString(of = {"id", "name"})
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_seq")
+    @GenericGenerator(
+            name = "team_seq",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "team_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            }
+    )
     @Column(name = "team_id")
     private Long id;
 
     private String name;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members") // 컬렉션은 회원의 식별자 목록만 캐시한다.
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
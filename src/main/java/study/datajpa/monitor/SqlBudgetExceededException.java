@@ -0,0 +1,12 @@
+package study.datajpa.monitor;
+
+/**
+ * SQL 실행 횟수가 예산을 넘거나 N + 1 이 의심될 때 발생한다.
+ * (datajpa.sql.fail-on-violation=true 일 때만, 주로 테스트에서 사용한다)
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,176 @@
+package study.datajpa.monitor;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * [SQL 프로파일러] (datajpa.sql.profiler.enabled=true, profiler 프로필)
+ * <p>
+ * p6spy 로그는 모든 SQL 을 파라미터까지 채운 문자열로 만들어서 요청 스레드에서 바로 로그로 쓴다. (부하가 크면 CPU, 로그 I/O 비용)
+ * -> 프로파일러는 SQL 을 모양(리터럴, in 목록을 ? 로 바꾼 SQL)별로 모아서 실행 횟수와 시간 분포만 기록한다.
+ * -> 전체 SQL 문자열(파라미터 포함)은 sample-rate 비율로만 만들고, slow-threshold 보다 느린 SQL 은 항상 남긴다.
+ * -> 샘플은 크기가 정해진 큐에 넣고 별도 스레드가 로그로 쓴다. 큐가 가득 차면 버린다. (요청 스레드는 기다리지 않는다)
+ * <p>
+ * 샘플 로그 : study.datajpa.sql.sample (INFO)
+ * 통계 : "/stats/sql?sort=TOTAL&limit=20" (SqlProfileController)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.sql.profiler.enabled", havingValue = "true")
+public class SqlProfiler extends SimpleJdbcEventListener implements DisposableBean {
+
+    private static final Logger sampleLog = LoggerFactory.getLogger("study.datajpa.sql.sample");
+
+    /**
+     * 모양 종류가 max-shapes 를 넘으면 나머지는 여기에 모은다. (리터럴이 섞인 SQL 이 끝없이 늘어나는 경우)
+     */
+    static final String OTHER_SHAPE = "(other)";
+
+    public enum Sort {
+        /**
+         * 평균 실행 시간
+         */
+        SLOWEST(Comparator.comparingLong(SqlShapeStats::getMeanNanos)),
+        /**
+         * 실행 횟수
+         */
+        FREQUENT(Comparator.comparingLong(SqlShapeStats::getCount)),
+        /**
+         * 전체 실행 시간 (횟수 * 평균)
+         */
+        TOTAL(Comparator.comparingLong(SqlShapeStats::getTotalNanos));
+
+        private final Comparator<SqlShapeStats> comparator;
+
+        Sort(Comparator<SqlShapeStats> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    private final ConcurrentHashMap<String, SqlShapeStats> shapes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> shapeCache = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> samples;
+    private final LongAdder droppedSamples = new LongAdder();
+    private final Thread writer;
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+
+    public SqlProfiler(@Value("${datajpa.sql.profiler.sample-rate:0.01}") double sampleRate,
+                       @Value("${datajpa.sql.profiler.slow-threshold:100ms}") Duration slowThreshold,
+                       @Value("${datajpa.sql.profiler.buffer-size:1000}") int bufferSize,
+                       @Value("${datajpa.sql.profiler.max-shapes:1000}") int maxShapes) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxShapes = maxShapes;
+        this.samples = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = new Thread(this::writeSamples, "sql-profiler-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        if (sql == null) {
+            return;
+        }
+        statsOf(shapeOf(sql)).record(timeElapsedNanos, e != null);
+
+        boolean slow = slowThresholdNanos > 0 && timeElapsedNanos >= slowThresholdNanos;
+        if (slow || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            String sample = (slow ? "[slow] " : "") + TimeUnit.NANOSECONDS.toMicros(timeElapsedNanos) + "us | "
+                    + statementInformation.getSqlWithValues();
+            if (!samples.offer(sample)) {
+                droppedSamples.increment();
+            }
+        }
+    }
+
+    /**
+     * 같은 SQL 문자열은 모양을 다시 계산하지 않는다. (PreparedStatement SQL 은 종류가 많지 않다)
+     */
+    private String shapeOf(String sql) {
+        String shape = shapeCache.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        shape = SqlStatementStats.shapeOf(sql);
+        if (shapeCache.size() < maxShapes * 4) {
+            shapeCache.put(sql, shape);
+        }
+        return shape;
+    }
+
+    private SqlShapeStats statsOf(String shape) {
+        SqlShapeStats stats = shapes.get(shape);
+        if (stats != null) {
+            return stats;
+        }
+        if (shapes.size() >= maxShapes) {
+            shape = OTHER_SHAPE;
+        }
+        return shapes.computeIfAbsent(shape, SqlShapeStats::new);
+    }
+
+    public List<SqlShapeStats> top(Sort sort, int limit) {
+        return shapes.values().stream()
+                .sorted(sort.comparator.reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    public long getDroppedSamples() {
+        return droppedSamples.sum();
+    }
+
+    private void writeSamples() {
+        long reported = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                sampleLog.info(samples.take());
+                long dropped = droppedSamples.sum();
+                if (dropped > reported) {
+                    log.warn("샘플 버퍼가 가득 차서 SQL 샘플 {}건을 버렸습니다.", dropped - reported);
+                    reported = dropped;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        writer.interrupt();
+        writer.join(1000);
+        List<String> remaining = new ArrayList<>();
+        samples.drainTo(remaining);
+        remaining.forEach(sampleLog::info);
+    }
+}
@@ -0,0 +1,92 @@
+package study.datajpa.monitor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * [SQL 모양별 실행 통계] (SqlProfiler)
+ * <p>
+ * 여러 스레드가 동시에 기록하므로 락 없이 LongAdder, AtomicLongArray 만 사용한다.
+ * <p>
+ * [응답 시간 분포]
+ * 실행 시간(마이크로초)을 2의 거듭제곱 구간으로 센다. (0~1us, 1~2us, 2~4us, ... , 2^38us~)
+ * -> 백분위 값은 해당 구간의 상한이므로 실제 값보다 최대 2배 크게 나올 수 있다.
+ */
+public final class SqlShapeStats {
+
+    private static final int BUCKETS = 40;
+
+    private final String shape;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    SqlShapeStats(String shape) {
+        this.shape = shape;
+    }
+
+    void record(long nanos, boolean error) {
+        count.increment();
+        if (error) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets.incrementAndGet(bucketOf(nanos));
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalNanos() / count;
+    }
+
+    /**
+     * @param percentile 0.0 ~ 1.0
+     * @return 해당 구간의 상한 (나노초), 기록이 없으면 0
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank && cumulative > 0) {
+                return Math.min((1L << i) * 1000, getMaxNanos());
+            }
+        }
+        return 0;
+    }
+}
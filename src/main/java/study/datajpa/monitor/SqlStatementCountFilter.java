@@ -0,0 +1,89 @@
+package study.datajpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * [HTTP 요청당 SQL 실행 횟수]
+ * <p>
+ * 요청 하나에서 실행된 SQL 수를 X-SQL-Count 응답 헤더로 내려준다.
+ * <p>
+ * 엔티티를 그대로 반환하면 JSON 으로 변환하는 중에 지연 로딩(N + 1)이 일어난다. (OSIV)
+ * -> 응답 본문을 다 쓴 뒤에야 SQL 수를 알 수 있으므로 본문을 버퍼에 모았다가 헤더를 추가하고 내보낸다.
+ * <p>
+ * StreamingResponseBody 같은 비동기 응답은 버퍼링하지 않고 헤더도 추가하지 않는다.
+ * (본문은 다른 스레드에서 쓰므로 그 SQL 은 요청 범위에 포함되지 않는다)
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Count";
+
+    private final SqlStatementMonitor sqlStatementMonitor;
+
+    /**
+     * 요청 하나에서 허용하는 SQL 실행 횟수 (0 이면 제한 없음)
+     */
+    @Value("${datajpa.sql.budget.request:0}")
+    private int requestBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        StreamingAwareResponseWrapper responseWrapper = new StreamingAwareResponseWrapper(request, response);
+        SqlStatementStats stats = sqlStatementMonitor.begin(request.getMethod() + " " + request.getRequestURI(),
+                requestBudget);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        responseWrapper.setIntHeader(HEADER, stats.getCount());
+        responseWrapper.copyBodyToResponse();
+    }
+
+    /**
+     * 비동기 처리가 시작된 뒤에 쓰는 본문은 버퍼에 모으지 않고 원래 응답으로 바로 쓴다.
+     * CompletableFuture 같은 비동기 결과는 ASYNC 디스패치에서 이 래퍼로 쓰므로 마찬가지로 바로 쓴다.
+     */
+    private static class StreamingAwareResponseWrapper extends ContentCachingResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        StreamingAwareResponseWrapper(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return isAsync() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return isAsync() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        private boolean isAsync() {
+            return request.isAsyncStarted() || request.getDispatcherType() == DispatcherType.ASYNC;
+        }
+    }
+}
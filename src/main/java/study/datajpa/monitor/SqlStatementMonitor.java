@@ -0,0 +1,143 @@
+package study.datajpa.monitor;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * [SQL 실행 횟수 모니터]
+ * <p>
+ * p6spy 가 감싼 커넥션으로 실행되는 모든 SQL 을 센다. (JdbcEventListener 빈은 p6spy 스타터가 자동으로 등록한다)
+ * -> JPA 뿐만 아니라 JdbcTemplate 으로 실행한 SQL 도 포함된다. (JDBC 배치는 executeBatch() 한번을 1건으로 센다)
+ * <p>
+ * [범위]
+ * begin() ~ end() : HTTP 요청(SqlStatementCountFilter), 테스트 코드 등 명시적인 범위
+ * 트랜잭션 : 트랜잭션 안에서 처음 SQL 이 실행될 때 시작해서 트랜잭션이 끝나면 종료된다.
+ * <p>
+ * [위반]
+ * 범위 안의 SQL 실행 횟수가 예산(budget)을 넘었을 때
+ * 같은 모양의 select 가 datajpa.sql.n-plus-one-threshold 번 실행되었을 때 (N + 1 의심)
+ * -> 경고 로그를 남긴다. datajpa.sql.fail-on-violation=true 면 SqlBudgetExceededException 을 던진다.
+ */
+@Slf4j
+@Component
+public class SqlStatementMonitor extends SimpleJdbcEventListener {
+
+    private final ThreadLocal<Deque<SqlStatementStats>> scopes = new ThreadLocal<>();
+
+    private final int transactionBudget;
+    private final int nPlusOneThreshold;
+    private final boolean failOnViolation;
+
+    public SqlStatementMonitor(@Value("${datajpa.sql.budget.transaction:0}") int transactionBudget,
+                               @Value("${datajpa.sql.n-plus-one-threshold:5}") int nPlusOneThreshold,
+                               @Value("${datajpa.sql.fail-on-violation:false}") boolean failOnViolation) {
+        this.transactionBudget = transactionBudget;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.failOnViolation = failOnViolation;
+    }
+
+    /**
+     * 현재 스레드에서 실행되는 SQL 을 세기 시작한다. 반드시 end() 를 호출해야 한다.
+     *
+     * @param budget 허용하는 SQL 실행 횟수 (0 이하면 제한 없음)
+     */
+    public SqlStatementStats begin(String name, int budget) {
+        Deque<SqlStatementStats> deque = scopes.get();
+        if (deque == null) {
+            deque = new ArrayDeque<>();
+            scopes.set(deque);
+        }
+        SqlStatementStats stats = new SqlStatementStats(name, budget);
+        deque.push(stats);
+        return stats;
+    }
+
+    public void end(SqlStatementStats stats) {
+        Deque<SqlStatementStats> deque = scopes.get();
+        if (deque != null) {
+            deque.remove(stats);
+            if (deque.isEmpty()) {
+                scopes.remove();
+            }
+        }
+        log.debug("{}", stats);
+    }
+
+    @Override
+    public void onBeforeAnyExecute(StatementInformation statementInformation) {
+        String sql = statementInformation.getSql();
+        Deque<SqlStatementStats> deque = scopes.get();
+        if (deque != null) {
+            for (SqlStatementStats stats : deque) {
+                record(stats, sql);
+            }
+        }
+        SqlStatementStats transactionStats = transactionStats();
+        if (transactionStats != null) {
+            record(transactionStats, sql);
+        }
+    }
+
+    private void record(SqlStatementStats stats, String sql) {
+        int sameShape = stats.record(sql);
+        if (stats.getBudget() > 0 && stats.getCount() == stats.getBudget() + 1) {
+            violation("[" + stats.getName() + "] SQL 실행 횟수가 예산(" + stats.getBudget() + "건)을 넘었습니다.");
+        }
+        if (nPlusOneThreshold > 0 && sameShape == nPlusOneThreshold) {
+            violation("[" + stats.getName() + "] N + 1 의심 : 같은 select 가 " + sameShape + "번 실행되었습니다. "
+                    + SqlStatementStats.shapeOf(sql));
+        }
+    }
+
+    private void violation(String message) {
+        if (failOnViolation) {
+            throw new SqlBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    /**
+     * 트랜잭션마다 하나씩 만든다.
+     * REQUIRES_NEW 로 트랜잭션이 보류(suspend)되면 바깥 트랜잭션의 통계도 함께 내려놓는다.
+     */
+    private SqlStatementStats transactionStats() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        SqlStatementStats stats = (SqlStatementStats) TransactionSynchronizationManager.getResource(this);
+        if (stats != null) {
+            return stats;
+        }
+
+        SqlStatementStats created = new SqlStatementStats(
+                "tx " + TransactionSynchronizationManager.getCurrentTransactionName(), transactionBudget);
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SqlStatementMonitor.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(SqlStatementMonitor.this, created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SqlStatementMonitor.this);
+                log.debug("{}", created);
+            }
+        });
+        return created;
+    }
+}
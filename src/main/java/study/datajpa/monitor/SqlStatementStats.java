@@ -0,0 +1,96 @@
+package study.datajpa.monitor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * [SQL 실행 통계]
+ * <p>
+ * HTTP 요청 하나, 트랜잭션 하나 같은 범위(scope) 안에서 실행된 SQL 수를 센다.
+ * select 는 모양(shape)별로도 센다. -> 같은 모양의 select 가 반복되면 N + 1 을 의심할 수 있다.
+ * <p>
+ * 모양 : 리터럴과 in (?, ?, ...) 목록을 ? 로 바꾸고 공백을 정리한 SQL
+ * (Hibernate 가 만드는 SQL 은 이미 ? 를 사용하므로 대부분 SQL 그대로다)
+ * <p>
+ * 한 스레드에서만 사용한다.
+ */
+public class SqlStatementStats {
+
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String name;
+    private final int budget;
+    private final Map<String, Integer> selectCounts = new LinkedHashMap<>();
+    private int count;
+
+    /**
+     * @param budget 허용하는 SQL 실행 횟수 (0 이하면 제한 없음)
+     */
+    public SqlStatementStats(String name, int budget) {
+        this.name = name;
+        this.budget = budget;
+    }
+
+    /**
+     * @return select 면 같은 모양의 select 가 실행된 횟수, 아니면 0
+     */
+    int record(String sql) {
+        count++;
+        if (sql == null) {
+            return 0;
+        }
+        String shape = shapeOf(sql);
+        if (!shape.regionMatches(true, 0, "select", 0, 6)) {
+            return 0;
+        }
+        return selectCounts.merge(shape, 1, Integer::sum);
+    }
+
+    static String shapeOf(String sql) {
+        String shape = LITERAL.matcher(sql).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isOverBudget() {
+        return budget > 0 && count > budget;
+    }
+
+    public Map<String, Integer> getSelectCounts() {
+        return Collections.unmodifiableMap(selectCounts);
+    }
+
+    /**
+     * threshold 번 이상 실행된 select 모양 (N + 1 의심)
+     */
+    public Map<String, Integer> getRepeatedSelects(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        selectCounts.forEach((shape, n) -> {
+            if (n >= threshold) {
+                repeated.put(shape, n);
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public String toString() {
+        return name + " : SQL " + count + "건";
+    }
+}
@@ -0,0 +1,57 @@
+package study.datajpa.monitor;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [SQL 실행 시간 메트릭]
+ * <p>
+ * p6spy 가 잰 SQL 실행 시간을 "jdbc.statements" 타이머로 기록한다. (/actuator/metrics/jdbc.statements)
+ * -> tag type : select, insert, update, delete, merge, other
+ * -> tag outcome : success, error
+ * <p>
+ * 같은 요청의 커넥션 획득 시간(hikaricp.connections.acquire)과 비교하면
+ * 응답 시간이 커넥션 대기에서 걸리는지, SQL 실행에서 걸리는지 구분할 수 있다. (/stats/pool)
+ */
+@Component
+public class SqlStatementTimer extends SimpleJdbcEventListener {
+
+    public static final String METRIC = "jdbc.statements";
+
+    private static final String[] TYPES = {"select", "insert", "update", "delete", "merge"};
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        Timer.builder(METRIC)
+                .tag("type", typeOf(statementInformation.getSql()))
+                .tag("outcome", e == null ? "success" : "error")
+                .register(meterRegistry)
+                .record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static String typeOf(String sql) {
+        if (sql == null) {
+            return "other";
+        }
+        String trimmed = sql.trim().toLowerCase(Locale.ROOT);
+        for (String type : TYPES) {
+            if (trimmed.startsWith(type)) {
+                return type;
+            }
+        }
+        return "other";
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+
+import java.util.Collection;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * [대량 저장 (upsert)]
+     * 이미 있는 id 는 건너뛰고 없는 id 만 저장한다. -> save() 처럼 merge() 의 select 가 나가지 않는다.
+     * JPA 를 거치지 않으므로 @CreatedDate 대신 호출 시점을 created_date 로 저장하고,
+     * 넘겨받은 Item 객체와 영속성 컨텍스트에는 반영되지 않는다.
+     *
+     * @return 새로 저장한 Item 수
+     */
+    int upsertAll(Collection<Item> items);
+}
@@ -0,0 +1,66 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Item;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * [직접 할당한 식별자의 저장 비용]
+ * save(new Item("A")) 는 isNew() 가 true 라서 persist() 하지만,
+ * 이미 있는 id 면 flush 시점에 PK 중복 예외가 나고, createdDate 가 있는 Item 은 merge() 로 select 후 저장한다.
+ * <p>
+ * [upsert]
+ * 데이터베이스가 중복 여부를 판단하게 한다. (select 없이 한번에)
+ * H2     : MERGE INTO ... USING ... WHEN NOT MATCHED THEN INSERT
+ * MySQL  : INSERT ... ON DUPLICATE KEY UPDATE id = id
+ * Postgre: INSERT ... ON CONFLICT (id) DO NOTHING
+ * -> 로컬(H2) 문법만 구현했다. 다른 데이터베이스는 UPSERT_SQL 을 바꾼다.
+ * <p>
+ * JdbcTemplate.batchUpdate() 로 batchSize 건씩 JDBC 배치로 보낸다.
+ */
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final String UPSERT_SQL = "merge into item t" +
+            " using (select cast(? as varchar(255)) id, cast(? as timestamp) created_date) s" +
+            " on (t.id = s.id)" +
+            " when not matched then insert (id, created_date) values (s.id, s.created_date)";
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${datajpa.batch.size:100}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public int upsertAll(Collection<Item> items) {
+        em.flush(); // 아직 insert 되지 않은 Item 이 있으면 먼저 반영한다. (나중에 flush 되면 PK 중복)
+
+        Timestamp createdDate = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(items.size());
+        for (Item item : items) {
+            args.add(new Object[]{item.getId(), createdDate});
+        }
+
+        int inserted = 0;
+        for (int from = 0; from < args.size(); from += batchSize) {
+            int[] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, args.subList(from, Math.min(from + batchSize, args.size())));
+            for (int count : counts) {
+                if (count > 0) {
+                    inserted += count;
+                }
+            }
+        }
+        return inserted;
+    }
+}
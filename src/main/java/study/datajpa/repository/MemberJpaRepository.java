@@ -83,8 +83,8 @@ public class MemberJpaRepository {
      */
     public int bulkAgePlus(int age) {
         return em.createQuery(
-                        "update Member m set m.age = m.age + 1" +
-                                "where m.age >= :age")
+                        "update Member m set m.age = m.age + 1, m.version = m.version + 1" +
+                                " where m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
     }
@@ -5,12 +5,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,7 +32,17 @@ import java.util.Optional;
  * getOne(ID) : 엔티티를 프록시로 조회한다. 내부에서 EntityManager.getReference() 호출
  * findAll(…) : 모든 엔티티를 조회한다. 정렬( Sort )이나 페이징( Pageable ) 조건을 파라미터로 제공할 수
  * 있다
+ * <p>
+ * [읽기 전용 트랜잭션]
+ * 인터페이스에 선언한 쿼리 메소드는 기본적으로 트랜잭션 없이 실행된다. (SimpleJpaRepository 의 메소드만 readOnly)
+ * -> @Transactional(readOnly = true) 를 인터페이스에 달아서 모든 조회 쿼리를 읽기 전용 트랜잭션으로 실행한다.
+ * -> 트랜잭션 동안 FlushMode.MANUAL 로 바뀌어서 flush(변경 감지)를 하지 않는다.
+ * -> 트랜잭션이 세션을 새로 열면 세션도 읽기 전용(setDefaultReadOnly)이 되어 스냅샷을 만들지 않는다.
+ * (OSIV 로 이미 열린 세션은 읽기 전용으로 바꾸지 않는다. -> GET 요청은 ReadOnlyRequestInterceptor 가 바꾼다)
+ * -> 수정하는 메소드는 @Transactional 을 따로 달아야 한다.
+ * (이미 시작된 트랜잭션이 있으면 그 트랜잭션에 참여하므로 readOnly 는 무시된다)
  */
+@Transactional(readOnly = true)
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
 
     /**
@@ -89,8 +99,13 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * 하지만, 실무에서 NamedQuery를 잘 사용하지 않는다.
      * -> Repository 메소드에 쿼리를 바로 작성할 수 있다.
      * (@Query, 리포지토리 메소드에 쿼리 정의하기)
+     * <p>
+     * [쿼리 캐시]
+     * org.hibernate.cacheable 힌트 : 같은 username 으로 조회하면 쿼리 결과(식별자 목록)를 캐시에서 꺼낸다.
+     * -> Member 테이블이 변경되면 캐시된 쿼리 결과는 자동으로 무효화된다.
      */
 //    @Query(name = "Member.findByUsername")
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Member> findByUsername(@Param("username") String username);
 
     /**
@@ -119,14 +134,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    /**
-     * 파라미터 바인딩 (위치 기반은 사용하지 말고, 가급적 이름 기반으로 사용해라)
-     * <p>
-     * [컬렉션 파라미터 바인딩]
-     */
-    @Query("select m from Member m where m.username in :names")
-    List<Member> findByNames(@Param("names") Collection<String> names);
-
     //컬렉션 (findListByUsername의 결과가 없으면 빈 컬랙션을 반환한다.)
     List<Member> findListByUsername(String name);
 
@@ -179,12 +186,13 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * Pageable nextPageable(); //다음 페이지 객체
      * Pageable previousPageable();//이전 페이지 객체
      * <U> Slice<U> map(Function<? super T, ? extends U> converter); //변환기
+     * <p>
+     * Slice 는 size + 1 개를 조회해서 다음 페이지 여부만 판단한다. -> count 쿼리를 실행하지 않는다. (countQuery 는 Page 에서만 사용)
+     * where age = :age + username 정렬 -> idx_member_age_username 인덱스로 조회한다.
+     * (깊은 페이지는 offset 만큼 읽고 버리므로 무한 스크롤은 findKeysetPageByAge 를 사용한다)
      */
-    @Query(
-            value = "select m from Member m left join m.team t", // content를 가져오는 쿼리
-            countQuery = "select count(m.username) from Member m" // 카운트 쿼리
-    )
-    Slice<Member> findSliceByAge(int age, Pageable pageable);
+    @Query("select m from Member m where m.age = :age")
+    Slice<Member> findSliceByAge(@Param("age") int age, Pageable pageable);
 
     List<Member> findTop3By();
 
@@ -193,9 +201,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      *
      * @Modifying -> 업데이트 쿼리에서 @Modifying 어노테이션을 달아야 한다.
      * @Modifying(clearAutomatically = true) -> em.flush, em.clear 를 자동으로 해준다.
+     * <p>
+     * 벌크 수정은 @Version 을 올리지 않는다. -> 직접 올려야 이 값을 읽어둔 트랜잭션의 수정이 충돌로 감지된다.
      */
+    @Transactional
     @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age +1 where m.age >= :age")
+    @Query("update Member m set m.age = m.age +1, m.version = m.version + 1 where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
 
     /**
@@ -250,6 +261,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     /**
      * [Lock] : JPA가 제공하는 Lock 을 활용할 수 있다.
+     * <p>
+     * PESSIMISTIC_WRITE 는 조회한 행을 커밋할 때까지 잠근다. -> 같은 회원을 수정하는 트랜잭션이 모두 줄을 서서 기다린다.
+     * 충돌이 드물면 @Version(낙관적 락) + @OptimisticRetry 를 사용한다. (MemberService.addAge)
      *
      *     select
      *         member0_.member_id as member_i1_0_,
@@ -261,6 +275,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      *     where
      *         member0_.username=? for update
      */
+    @Transactional
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String name);
 
@@ -271,4 +286,16 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      */
     List<UsernameOnly> findProjectionsByUsername(String username);
 
+    /**
+     * 클래스 기반 프로젝션
+     * UsernameOnlyDto 의 생성자로 바로 생성한다. (select new ...)
+     */
+    List<UsernameOnlyDto> findUsernameDtoByUsername(String username);
+
+    /**
+     * 중첩 인터페이스 프로젝션
+     * 회원의 id, username 과 팀 엔티티 전체를 조회해서 MemberSummary, TeamName 프록시로 감싼다.
+     */
+    List<MemberSummary> findSummaryByUsername(String username);
+
 }
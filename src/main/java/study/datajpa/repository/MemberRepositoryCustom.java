@@ -1,8 +1,18 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.CountStrategy;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * [사용자 정의 리포지토리 구현]
@@ -18,8 +28,99 @@ import java.util.List;
  * <p>
  * 1. MemberRepositoryImpl 에 인터페이스 메소드 구현하고
  * 2. MemberRepository 에 MemberRepositoryCustom 인터페이스를 extends 한다.
+ * <p>
+ * MemberRepository 의 @Transactional(readOnly = true) 는 여기 선언한 메소드에 적용되지 않는다.
+ * (트랜잭션 속성은 메소드를 선언한 인터페이스(MemberRepositoryCustom)에서 찾는다)
+ * -> 여기에도 @Transactional(readOnly = true) 를 달고, 저장/수정하는 메소드는 @Transactional 을 따로 단다.
  */
+@Transactional(readOnly = true)
 public interface MemberRepositoryCustom {
 
     List<Member> findMemberCustom();
+
+    /**
+     * [Tuple 클래스 프로젝션]
+     * "select m.id, m.username, t.name from Member m left join m.team t where m.username = :username"
+     * -> Tuple 의 컬럼을 MemberDto 생성자에 바로 넘긴다. (TupleProjection, 프록시 없음, 팀이 없는 회원도 포함)
+     */
+    List<MemberDto> findDtoByUsername(String username);
+
+    /**
+     * 파라미터 바인딩 (위치 기반은 사용하지 말고, 가급적 이름 기반으로 사용해라)
+     * <p>
+     * [IN 목록 조회, 컬렉션 파라미터 바인딩]
+     * "select m from Member m where m.username in :names"
+     * -> names 가 datajpa.in-clause.chunk-size 보다 많으면 나눠서 조회한 뒤 합친다. (InClauseChunks)
+     * -> names 가 비어 있으면 쿼리 없이 빈 목록을 반환한다.
+     */
+    List<Member> findByNames(Collection<String> names);
+
+    /**
+     * [키셋(커서) 페이징]
+     * (username desc, id desc) 순서로 cursor 다음 회원을 size 만큼 조회한다.
+     * cursor 가 null 이면 첫 페이지를 조회한다.
+     */
+    Slice<Member> findKeysetPage(MemberCursor cursor, int size);
+
+    /**
+     * [나이 조건 키셋 페이징]
+     * findKeysetPage() 와 같은 순서로 나이가 age 인 회원만 조회한다. (idx_member_age_username, count 쿼리 없음)
+     */
+    Slice<Member> findKeysetPageByAge(int age, MemberCursor cursor, int size);
+
+    /**
+     * [count 전략을 선택할 수 있는 페이징]
+     * findAll(Pageable), findByAge(int, Pageable) 과 같지만 totalCount 를 구하는 방법을 선택할 수 있다.
+     */
+    Page<Member> findPage(Pageable pageable, CountStrategy countStrategy);
+
+    Page<Member> findPageByAge(int age, Pageable pageable, CountStrategy countStrategy);
+
+    /**
+     * [DTO 페이징]
+     * findPage() 와 같은 조건으로 MemberDto(id, username, teamName) 를 엔티티 없이 바로 조회한다.
+     * 정렬 조건은 Member 의 필드만 사용할 수 있다.
+     */
+    Page<MemberDto> findDtoPage(Pageable pageable, CountStrategy countStrategy);
+
+    /**
+     * [대량 저장]
+     * 회원을 JDBC 배치로 저장하고, 배치 크기마다 영속성 컨텍스트를 비운다.
+     * (호출한 쪽의 영속성 컨텍스트도 함께 비워진다. 회원의 team 은 이미 저장된 엔티티여야 한다.)
+     *
+     * @return 저장한 회원 수
+     */
+    @Transactional
+    long bulkInsert(Stream<Member> members);
+
+    /**
+     * [스트리밍 조회]
+     * 전체 회원(+ team)을 한번에 List 로 올리지 않고, 커서로 한 건씩 읽는다.
+     * -> 트랜잭션 안에서 호출하고, 다 사용한 Stream 은 반드시 close 해야 한다. (try-with-resources)
+     * -> fetchSize 건마다 영속성 컨텍스트를 비우므로 이미 읽은 회원은 준영속 상태가 된다.
+     */
+    Stream<Member> streamAll(int fetchSize);
+
+    /**
+     * [id 구간 병렬 조회]
+     * 전체 회원을 id 구간 partitions 개로 나눠서 구간마다 별도의 커넥션(읽기 전용 트랜잭션)으로 동시에 조회한다. (PartitionedScanner)
+     * -> 엔티티 없이 MemberDto(id, username, teamName) 로 조회한다.
+     * -> 구간 사이의 순서는 보장하지 않는다. 다 사용한 Stream 은 반드시 close 해야 한다. (try-with-resources)
+     * -> 구간마다 새 트랜잭션을 사용하므로 호출한 쪽의 트랜잭션에는 참여하지 않는다.
+     *
+     * @param partitions 구간 수 (0 이면 datajpa.scan.threads)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    Stream<MemberDto> scanPartitioned(int partitions);
+
+    /**
+     * [분할 벌크 수정]
+     * bulkAgePlus(age) 와 같은 수정을 id 구간별 트랜잭션으로 나눠서 병렬로 실행한다. (ChunkedBulkUpdater)
+     * -> 영속성 컨텍스트를 비우지 않고, 수정한 회원만 2차 캐시에서 제거한다.
+     * -> 실패하면 BulkUpdateException, 같은 age 로 다시 호출하면 남은 구간부터 이어서 수정한다.
+     *
+     * @return 수정한 회원 수
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    long bulkAgePlusInChunks(int age, int chunkSize);
 }
@@ -1,10 +1,48 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.config.AuditTimeProvider;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.BulkUpdateJob;
+import study.datajpa.repository.support.ChunkedBulkUpdater;
+import study.datajpa.repository.support.CountCache;
+import study.datajpa.repository.support.CountStrategy;
+import study.datajpa.repository.support.InClauseChunks;
+import study.datajpa.repository.support.MemberCountInvalidationAspect;
+import study.datajpa.repository.support.PartitionedScanner;
+import study.datajpa.repository.support.TupleProjection;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * [XXRepository + Impl] 라는 명명 규칙을 맞추면
@@ -15,11 +53,338 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    /**
+     * 시작할 때 생성자를 찾아둔다. (없으면 애플리케이션이 뜨지 않는다)
+     */
+    private static final TupleProjection<MemberDto> MEMBER_DTO =
+            TupleProjection.of(MemberDto.class, Long.class, String.class, String.class);
+
     private final EntityManager em;
+    private final CountCache countCache;
+    private final ChunkedBulkUpdater chunkedBulkUpdater;
+    private final PartitionedScanner partitionedScanner;
+    private final AuditTimeProvider auditTimeProvider;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean rowCountEstimateSupported;
+
+    @Value("${datajpa.batch.size:100}")
+    private int batchSize;
+
+    @Value("${datajpa.in-clause.chunk-size:1024}")
+    private int inClauseChunkSize;
+
+    @Value("${datajpa.scan.batch-size:500}")
+    private int scanBatchSize;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
+
+    @Override
+    public List<Member> findByNames(Collection<String> names) {
+        return InClauseChunks.query(names, inClauseChunkSize,
+                chunk -> em.createQuery("select m from Member m where m.username in :names", Member.class)
+                        .setParameter("names", chunk)
+                        .getResultList());
+    }
+
+    /**
+     * offset 페이징은 "offset 만큼 읽고 버린다" -> 뒤 페이지로 갈수록 느려진다.
+     * 키셋 페이징은 마지막으로 조회한 (username, id) 보다 뒤에 있는 데이터만 조회한다.
+     * -> where 조건으로 시작 위치를 찾으므로 페이지 깊이와 상관없이 속도가 일정하다.
+     * -> id 를 정렬 조건에 함께 넣어서 username 이 같은 회원도 순서가 보장된다.
+     * <p>
+     * Slice 처럼 limit + 1 개를 조회해서 다음 페이지 여부를 판단한다. (count 쿼리 없음)
+     * team 은 fetch join 한다. (MemberDto 로 변환할 때 팀 이름을 사용한다)
+     * 단, username 이 null 인 회원은 조회 대상에서 제외된다.
+     */
+    @Override
+    public Slice<Member> findKeysetPage(MemberCursor cursor, int size) {
+        return keysetSlice("m.username is not null", "", null, cursor, size);
+    }
+
+    /**
+     * where age = :age and (커서 조건) order by age, username desc, id desc
+     * -> idx_member_age_username (age, username desc, member_id desc) 에서 커서 위치부터 size + 1 개만 읽는다. (정렬 없음)
+     * -> age 는 상수지만 order by 에 넣어야 H2 가 인덱스 순서를 그대로 사용한다.
+     */
+    @Override
+    public Slice<Member> findKeysetPageByAge(int age, MemberCursor cursor, int size) {
+        return keysetSlice("m.age = :age", "m.age, ", age, cursor, size);
+    }
+
+    /**
+     * 커서 조건 : username <= :username (인덱스 시작 위치) and (username < :username or id < :id)
+     *
+     * @param where   커서 조건 앞에 붙이는 조건 (파라미터는 :age 하나만 사용할 수 있다)
+     * @param orderBy (username desc, id desc) 앞에 붙이는 정렬 조건
+     */
+    private Slice<Member> keysetSlice(String where, String orderBy, Integer age, MemberCursor cursor, int size) {
+        String jpql = "select m from Member m left join fetch m.team where " + where;
+        if (cursor != null) {
+            jpql += " and m.username <= :username and (m.username < :username or m.id < :id)";
+        }
+        TypedQuery<Member> query = em.createQuery(jpql + " order by " + orderBy + "m.username desc, m.id desc", Member.class);
+        if (age != null) {
+            query.setParameter("age", age);
+        }
+        if (cursor != null) {
+            query.setParameter("username", cursor.getUsername())
+                    .setParameter("id", cursor.getId());
+        }
+
+        List<Member> content = query
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        Sort sort = Sort.by(Sort.Direction.DESC, "username", "id");
+        return new SliceImpl<>(content, PageRequest.of(0, size, sort), hasNext);
+    }
+
+    /**
+     * content 쿼리는 항상 실행하고, count 쿼리는 필요할 때만 실행한다.
+     * -> PageableExecutionUtils.getPage 는 첫 페이지의 데이터가 size 보다 적거나 마지막 페이지면 count 쿼리를 생략한다.
+     */
+    @Override
+    public Page<Member> findPage(Pageable pageable, CountStrategy countStrategy) {
+        List<Member> content = pagedQuery("select m from Member m", pageable, Member.class)
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countAll(countStrategy));
+    }
+
+    @Override
+    public List<MemberDto> findDtoByUsername(String username) {
+        return MEMBER_DTO.mapAll(em.createQuery("select m.id, m.username, t.name" +
+                        " from Member m left join m.team t" +
+                        " where m.username = :username" +
+                        " order by m.id", Tuple.class)
+                .setParameter("username", username)
+                .getResultList());
+    }
+
+    /**
+     * [DTO 로 바로 조회하는 페이징]
+     * findPage() + page.map(MemberDto::new) 는 엔티티를 만들고(스냅샷, 영속성 컨텍스트 등록) 다시 DTO 로 변환한다.
+     * -> SQL 결과에서 필요한 컬럼(id, username, team.name)만 DTO 생성자로 바로 넘긴다.
+     * -> team 을 left join 하므로 팀 이름을 지연 로딩(N + 1) 없이 함께 조회하고, 팀이 없는 회원도 조회된다.
+     * <p>
+     * count 는 findPage() 와 같다. (left join 이므로 회원 수와 같다)
+     */
+    @Override
+    public Page<MemberDto> findDtoPage(Pageable pageable, CountStrategy countStrategy) {
+        List<MemberDto> content = pagedQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                " from Member m left join m.team t", pageable, MemberDto.class)
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countAll(countStrategy));
+    }
+
+    private long countAll(CountStrategy countStrategy) {
+        if (countStrategy == CountStrategy.ESTIMATED) {
+            Long estimated = estimatedRowCount("MEMBER");
+            if (estimated != null) {
+                return estimated;
+            }
+        }
+        return count(countStrategy, "findAll",
+                () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+    }
+
+    @Override
+    public Page<Member> findPageByAge(int age, Pageable pageable, CountStrategy countStrategy) {
+        List<Member> content = pagedQuery("select m from Member m where m.age = :age", pageable, Member.class)
+                .setParameter("age", age)
+                .getResultList();
+
+        LongSupplier countQuery = () -> em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                .setParameter("age", age)
+                .getSingleResult();
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> count(countStrategy, "findByAge:" + age, countQuery));
+    }
+
+    private <T> TypedQuery<T> pagedQuery(String jpql, Pageable pageable, Class<T> type) {
+        TypedQuery<T> query = em.createQuery(QueryUtils.applySorting(jpql, pageable.getSort(), "m"), type);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+
+    private long count(CountStrategy countStrategy, String key, LongSupplier countQuery) {
+        if (countStrategy == CountStrategy.EXACT) {
+            return countQuery.getAsLong();
+        }
+        return countCache.get(MemberCountInvalidationAspect.REGION + ":" + key, countQuery);
+    }
+
+    /**
+     * H2 가 관리하는 테이블 행 수 추정치 (INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE)
+     * -> 추정치를 구할 수 없는 데이터베이스면 null 을 반환한다.
+     * <p>
+     * 네이티브 쿼리가 실패하면 Hibernate 가 트랜잭션을 롤백 전용으로 표시한다. (예외를 잡아도 커밋이 실패한다)
+     * -> 추정치 컬럼이 있는지 메타데이터로 한번만 확인하고, 있을 때만 JdbcTemplate 으로 조회한다.
+     */
+    private Long estimatedRowCount(String tableName) {
+        if (!rowCountEstimateSupported()) {
+            return null;
+        }
+        List<Long> result = jdbcTemplate.queryForList("select row_count_estimate from information_schema.tables" +
+                " where table_name = ?", Long.class, tableName);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    private boolean rowCountEstimateSupported() {
+        Boolean supported = rowCountEstimateSupported;
+        if (supported == null) {
+            supported = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                try (ResultSet columns = connection.getMetaData()
+                        .getColumns(null, "INFORMATION_SCHEMA", "TABLES", "ROW_COUNT_ESTIMATE")) {
+                    return columns.next();
+                }
+            });
+            rowCountEstimateSupported = supported;
+        }
+        return Boolean.TRUE.equals(supported);
+    }
+
+    /**
+     * saveAll() 로 수십만 건을 저장하면
+     * -> 영속성 컨텍스트에 엔티티와 스냅샷이 계속 쌓여서 메모리가 부족해지고, flush 할 때 변경 감지 비용도 커진다.
+     * <p>
+     * batchSize 마다 flush() 로 insert 를 JDBC 배치로 보내고, clear() 로 영속성 컨텍스트를 비운다.
+     * (hibernate.jdbc.batch_size 와 같은 값을 사용해야 배치 하나가 온전히 채워진다)
+     * <p>
+     * 저장하는 회원은 모두 같은 등록일/수정일을 갖는다. (AuditTimeProvider.batch())
+     */
+    @Override
+    @Transactional
+    public long bulkInsert(Stream<Member> members) {
+        long count = 0;
+        try (AuditTimeProvider.Batch batch = auditTimeProvider.batch()) {
+            Iterator<Member> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                em.persist(iterator.next());
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+        }
+        em.clear();
+        return count;
+    }
+
+    /**
+     * getResultList() 는 결과 전체를 List 로 만든다. -> 테이블이 크면 힙 메모리가 부족해진다.
+     * <p>
+     * [스트리밍 조회]
+     * ScrollMode.FORWARD_ONLY : 앞으로만 이동하는 JDBC 커서로 한 건씩 읽는다.
+     * fetchSize : JDBC 드라이버가 데이터베이스에서 한번에 가져오는 행 수
+     * readOnly : 스냅샷을 만들지 않는다.
+     * fetchSize 건마다 em.clear() : 영속성 컨텍스트에 엔티티가 계속 쌓이지 않는다.
+     * -> 테이블 크기와 상관없이 메모리 사용량이 일정하다.
+     * <p>
+     * (Spring Data JPA 의 Stream 반환 타입 + @QueryHints(HINT_FETCH_SIZE) 로도 스트리밍할 수 있지만,
+     * 읽은 엔티티가 영속성 컨텍스트에 계속 쌓인다.)
+     */
+    @Override
+    public Stream<Member> streamAll(int fetchSize) {
+        ScrollableResults results = em.createQuery("select m from Member m left join fetch m.team", Member.class)
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        Iterator<Member> iterator = new Iterator<Member>() {
+            private long count;
+            private Boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                if (hasNext == null) {
+                    if (count > 0 && count % fetchSize == 0) {
+                        em.clear(); // 다음 행을 읽기 전에 지금까지 읽은 엔티티를 준영속 상태로 만든다.
+                    }
+                    hasNext = results.next();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public Member next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasNext = null;
+                count++;
+                return (Member) results.get(0);
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(results::close);
+    }
+
+    /**
+     * 구간 안에서는 키셋 방식(id > 마지막 id)으로 읽는다. -> 기본 키 인덱스로 시작 위치를 찾는다.
+     * team 은 left join 해서 팀 이름을 함께 조회한다. (작업 스레드의 영속성 컨텍스트는 배치마다 닫히므로 지연 로딩할 수 없다)
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Stream<MemberDto> scanPartitioned(int partitions) {
+        return partitionedScanner.scan(partitions, scanBatchSize, new PartitionedScanner.RangeQuery<MemberDto>() {
+            @Override
+            public long[] idRange() {
+                Object[] range = em.createQuery("select min(m.id), max(m.id) from Member m", Object[].class)
+                        .getSingleResult();
+                return range[0] == null ? null : new long[]{(Long) range[0], (Long) range[1]};
+            }
+
+            @Override
+            public List<MemberDto> fetch(long afterId, long lastId, int limit) {
+                return em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                                " from Member m left join m.team t" +
+                                " where m.id > :afterId and m.id <= :lastId" +
+                                " order by m.id", MemberDto.class)
+                        .setParameter("afterId", afterId)
+                        .setParameter("lastId", lastId)
+                        .setMaxResults(limit)
+                        .getResultList();
+            }
+
+            @Override
+            public long idOf(MemberDto row) {
+                return row.getId();
+            }
+        });
+    }
+
+    /**
+     * 구간마다 작업 스레드에서 새 트랜잭션을 시작하므로 호출한 쪽의 트랜잭션에는 참여하지 않는다.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long bulkAgePlusInChunks(int age, int chunkSize) {
+        return chunkedBulkUpdater.execute(BulkUpdateJob.builder()
+                        .name("Member.bulkAgePlus:" + age)
+                        .table("member")
+                        .idColumn("member_id")
+                        .setClause("age = age + 1, version = version + 1, last_modified_date = current_timestamp")
+                        .whereClause("age >= ?")
+                        .whereArgs(new Object[]{age})
+                        .chunkSize(chunkSize)
+                        .entityClass(Member.class)
+                        .build())
+                .getUpdatedRows();
+    }
 }
@@ -0,0 +1,21 @@
+package study.datajpa.repository;
+
+/**
+ * 중첩 인터페이스 Projections
+ * <p>
+ * root 엔티티(Member)의 필드는 필요한 컬럼만 select 하지만
+ * 중첩 대상(team)은 엔티티 전체를 조회해서 프록시로 감싼다. (inner join -> 팀이 없는 회원은 빠진다)
+ * -> 회원 + 팀 이름만 필요하면 MemberRepositoryCustom.findDtoByUsername() 를 사용한다.
+ */
+public interface MemberSummary {
+
+    Long getId();
+
+    String getUsername();
+
+    TeamName getTeam();
+
+    interface TeamName {
+        String getName();
+    }
+}
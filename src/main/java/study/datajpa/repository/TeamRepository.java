@@ -1,12 +1,16 @@
 package study.datajpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Team;
 
 /**
  * @Repository 어노테이션 생략 가능
  * -> 컴포넌트 스캔을 스프링 데이터 JPA가 자동으로 처리
  * -> JPA 예외를 스프링 예외로 변환하는 과정도 자동으로 처리
+ * <p>
+ * 조회 메소드는 읽기 전용 트랜잭션으로 실행한다. (MemberRepository 참고)
  */
+@Transactional(readOnly = true)
 public interface TeamRepository extends JpaRepository<Team, Long> {
 }
@@ -0,0 +1,24 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+/**
+ * 클래스 기반 Projections
+ * <p>
+ * 인터페이스(UsernameOnly) 대신 클래스를 반환 타입으로 쓰면
+ * -> 스프링 데이터 JPA 가 생성자 파라미터 이름으로 select 할 필드를 정하고
+ * "select new study.datajpa.repository.UsernameOnlyDto(m.username) from Member m ..." 로 바로 생성한다.
+ * -> 프록시와 Map 없이 행마다 객체 하나만 만든다.
+ * <p>
+ * 생성자 파라미터 이름이 엔티티의 필드 이름과 같아야 한다. (생성자가 여러 개면 사용할 생성자에 @PersistenceConstructor)
+ * 중첩(team.name)은 지원하지 않는다. -> MemberRepositoryCustom.findDtoByUsername() 처럼 Tuple 로 조회한다.
+ */
+@Getter
+public class UsernameOnlyDto {
+
+    private final String username;
+
+    public UsernameOnlyDto(String username) {
+        this.username = username;
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.repository.support;
+
+/**
+ * 분할 벌크 수정 중 한 구간이라도 실패하면 발생한다.
+ * 완료된 구간은 이미 커밋되었고, 같은 이름의 작업을 다시 실행하면 남은 구간부터 이어서 수정한다.
+ */
+public class BulkUpdateException extends RuntimeException {
+
+    private final BulkUpdateProgress progress;
+
+    public BulkUpdateException(BulkUpdateProgress progress, Throwable cause) {
+        super("벌크 수정 실패 - " + progress, cause);
+        this.progress = progress;
+    }
+
+    public BulkUpdateProgress getProgress() {
+        return progress;
+    }
+}
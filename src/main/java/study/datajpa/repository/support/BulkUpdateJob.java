@@ -0,0 +1,31 @@
+package study.datajpa.repository.support;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * [분할 벌크 수정 작업 정의]
+ * <p>
+ * update {table} set {setClause} where ({whereClause}) and {idColumn} between ? and ?
+ * -> 파라미터는 setArgs, whereArgs, 구간 시작 id, 구간 끝 id 순서로 바인딩된다.
+ * <p>
+ * name : 실패 후 다시 실행할 때 완료된 구간을 찾는 키 (같은 작업이면 같은 이름을 사용한다)
+ * entityClass : 수정된 행의 2차 캐시를 비울 엔티티 (null 이면 비우지 않는다)
+ */
+@Getter
+@Builder
+public class BulkUpdateJob {
+
+    private final String name;
+    private final String table;
+    private final String idColumn;
+    private final String setClause;
+    @Builder.Default
+    private final Object[] setArgs = new Object[0];
+    @Builder.Default
+    private final String whereClause = "1 = 1";
+    @Builder.Default
+    private final Object[] whereArgs = new Object[0];
+    private final int chunkSize;
+    private final Class<?> entityClass;
+}
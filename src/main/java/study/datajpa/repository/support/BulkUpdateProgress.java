@@ -0,0 +1,76 @@
+package study.datajpa.repository.support;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * [분할 벌크 수정 진행 상황 (체크포인트)]
+ * <p>
+ * 작업을 시작할 때의 id 범위(minId ~ maxId)를 chunkSize 구간으로 나누고, 커밋이 끝난 구간의 시작 id 를 기록한다.
+ * -> 다시 실행하면 같은 구간으로 나누고 완료된 구간은 건너뛴다. (age + 1 처럼 두번 실행하면 안되는 수정도 안전하다)
+ * <p>
+ * 여러 작업 스레드가 함께 갱신한다.
+ */
+public class BulkUpdateProgress {
+
+    private final String name;
+    private final long minId;
+    private final long maxId;
+    private final int chunkSize;
+    private final Set<Long> completedChunks = ConcurrentHashMap.newKeySet();
+    private final AtomicLong updatedRows = new AtomicLong();
+
+    public BulkUpdateProgress(String name, long minId, long maxId, int chunkSize) {
+        this.name = name;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.chunkSize = chunkSize;
+    }
+
+    void complete(long chunkStart, int rows) {
+        updatedRows.addAndGet(rows);
+        completedChunks.add(chunkStart);
+    }
+
+    boolean isCompleted(long chunkStart) {
+        return completedChunks.contains(chunkStart);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getTotalChunks() {
+        return maxId < minId ? 0 : (int) ((maxId - minId) / chunkSize + 1);
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks.size();
+    }
+
+    public long getUpdatedRows() {
+        return updatedRows.get();
+    }
+
+    public boolean isDone() {
+        return getCompletedChunks() == getTotalChunks();
+    }
+
+    @Override
+    public String toString() {
+        return name + " : " + getCompletedChunks() + "/" + getTotalChunks() + " 구간, " + getUpdatedRows() + "건 수정";
+    }
+}
@@ -0,0 +1,217 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * [분할 벌크 수정]
+ * <p>
+ * "update Member m set m.age = m.age + 1 where m.age >= :age" 한번으로 큰 테이블을 수정하면
+ * -> 트랜잭션이 끝날 때까지 수정한 모든 행의 락을 잡고, undo 로그가 계속 커진다.
+ * -> @Modifying(clearAutomatically = true) 는 영속성 컨텍스트 전체를 비우고,
+ * JPQL 벌크 수정은 엔티티의 2차 캐시 리전 전체를 비운다.
+ * <p>
+ * [동작]
+ * 1. 작업 시작 시점의 id 범위를 chunkSize 구간으로 나눈다.
+ * 2. 구간마다 별도의 트랜잭션으로 수정하고 커밋한다. -> 락은 구간 단위로만 잡는다.
+ * 3. 구간들은 작업 스레드 풀(datajpa.bulk-update.threads)에서 병렬로 실행한다.
+ * (커넥션 풀 크기보다 작게 설정한다)
+ * 4. 커밋이 끝난 구간은 체크포인트(BulkUpdateProgress)에 기록한다.
+ * -> 한 구간이라도 실패하면 남은 구간은 실행하지 않고 BulkUpdateException 을 던진다.
+ * -> 같은 이름의 작업을 다시 실행하면 완료된 구간은 건너뛴다.
+ * (체크포인트는 메모리에 보관하므로 애플리케이션을 다시 시작하면 사라진다)
+ * 5. 구간에서 수정한 행의 id 만 2차 캐시에서 제거한다.
+ * <p>
+ * JdbcTemplate 으로 직접 수정하므로 호출한 쪽의 영속성 컨텍스트에는 반영되지 않는다.
+ * -> 트랜잭션 밖에서 호출한다.
+ */
+@Slf4j
+@Component
+public class ChunkedBulkUpdater implements DisposableBean {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory emf;
+    private final ExecutorService executor;
+
+    private final Map<String, BulkUpdateProgress> checkpoints = new ConcurrentHashMap<>();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public ChunkedBulkUpdater(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory emf,
+                              @Value("${datajpa.bulk-update.threads:4}") int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.emf = emf;
+        this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("bulk-update-"));
+    }
+
+    /**
+     * @return 완료된 작업의 진행 상황 (수정한 행 수 포함)
+     * @throws BulkUpdateException 실패한 구간이 있을 때 (다시 실행하면 이어서 수정한다)
+     */
+    public BulkUpdateProgress execute(BulkUpdateJob job) {
+        if (!running.add(job.getName())) {
+            throw new IllegalStateException("이미 실행 중인 작업입니다: " + job.getName());
+        }
+        try {
+            BulkUpdateProgress progress = checkpoints.computeIfAbsent(job.getName(), name -> newProgress(job));
+            if (progress.getCompletedChunks() > 0) {
+                log.info("이어서 실행 - {}", progress);
+            }
+
+            AtomicBoolean failed = new AtomicBoolean();
+            List<Future<?>> futures = new ArrayList<>();
+            for (long from = progress.getMinId(); from <= progress.getMaxId(); from += progress.getChunkSize()) {
+                if (progress.isCompleted(from)) {
+                    continue;
+                }
+                long chunkStart = from;
+                long chunkEnd = Math.min(from + progress.getChunkSize() - 1, progress.getMaxId());
+                futures.add(executor.submit(() -> {
+                    if (failed.get()) {
+                        return null; // 다른 구간이 실패하면 남은 구간은 실행하지 않는다.
+                    }
+                    try {
+                        updateChunk(job, progress, chunkStart, chunkEnd);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+
+            Throwable failure = awaitAll(futures, failed);
+            if (progress.getUpdatedRows() > 0 && job.getEntityClass() != null) {
+                // JDBC 로 수정하면 쿼리 캐시가 변경을 알 수 없다.
+                emf.getCache().unwrap(org.hibernate.Cache.class).evictQueryRegions();
+            }
+            if (failure != null) {
+                throw new BulkUpdateException(progress, failure);
+            }
+
+            checkpoints.remove(job.getName());
+            log.info("완료 - {}", progress);
+            return progress;
+        } finally {
+            running.remove(job.getName());
+        }
+    }
+
+    /**
+     * 실패한 작업의 체크포인트 (없으면 null)
+     */
+    public BulkUpdateProgress getProgress(String name) {
+        return checkpoints.get(name);
+    }
+
+    /**
+     * 체크포인트를 지운다. -> 다음 실행은 처음부터 시작한다.
+     */
+    public void reset(String name) {
+        checkpoints.remove(name);
+    }
+
+    private BulkUpdateProgress newProgress(BulkUpdateJob job) {
+        String sql = "select min(" + job.getIdColumn() + "), max(" + job.getIdColumn() + ")" +
+                " from " + job.getTable() + " where (" + job.getWhereClause() + ")";
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+            long minId = rs.getLong(1);
+            if (rs.wasNull()) {
+                return new BulkUpdateProgress(job.getName(), 0, -1, job.getChunkSize()); // 수정할 행이 없다.
+            }
+            return new BulkUpdateProgress(job.getName(), minId, rs.getLong(2), job.getChunkSize());
+        }, job.getWhereArgs());
+    }
+
+    private void updateChunk(BulkUpdateJob job, BulkUpdateProgress progress, long chunkStart, long chunkEnd) {
+        String range = "(" + job.getWhereClause() + ") and " + job.getIdColumn() + " between ? and ?";
+        Object[] whereArgs = concat(job.getWhereArgs(), chunkStart, chunkEnd);
+
+        ChunkResult result = transactionTemplate.execute(status -> {
+            List<Long> ids = job.getEntityClass() == null
+                    ? Collections.emptyList()
+                    : jdbcTemplate.queryForList("select " + job.getIdColumn() + " from " + job.getTable() +
+                    " where " + range + " for update", Long.class, whereArgs);
+            int rows = jdbcTemplate.update("update " + job.getTable() + " set " + job.getSetClause() +
+                    " where " + range, concat(job.getSetArgs(), whereArgs));
+            return new ChunkResult(rows, ids);
+        });
+
+        // 커밋한 뒤에 비운다. (커밋 전에 비우면 다른 트랜잭션이 이전 값을 다시 캐시할 수 있다)
+        for (Long id : result.ids) {
+            emf.getCache().evict(job.getEntityClass(), id);
+        }
+        progress.complete(chunkStart, result.rows);
+
+        int done = progress.getCompletedChunks();
+        int total = progress.getTotalChunks();
+        if (done * 10 / total != (done - 1) * 10 / total) {
+            log.info("진행 - {}", progress); // 10% 마다
+        }
+    }
+
+    private Throwable awaitAll(List<Future<?>> futures, AtomicBoolean failed) {
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.set(true);
+                futures.forEach(f -> f.cancel(false));
+                return e;
+            }
+        }
+        return failure;
+    }
+
+    private static Object[] concat(Object[] head, Object... tail) {
+        Object[] args = new Object[head.length + tail.length];
+        System.arraycopy(head, 0, args, 0, head.length);
+        System.arraycopy(tail, 0, args, head.length, tail.length);
+        return args;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static class ChunkResult {
+        private final int rows;
+        private final List<Long> ids;
+
+        private ChunkResult(int rows, List<Long> ids) {
+            this.rows = rows;
+            this.ids = ids;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * [count 쿼리 결과 캐시]
+ * <p>
+ * 페이지를 이동할 때마다 같은 count 쿼리가 반복해서 실행된다.
+ * -> "{엔티티명}:{쿼리명}:{파라미터}" 를 키로 결과를 TTL 동안 보관하고, 데이터가 바뀌면 엔티티 단위로 비운다.
+ * <p>
+ * 엔티티 필드만 바꾸는 변경 감지(dirty checking)는 감지하지 못하므로 최대 TTL 만큼 오래된 값이 보일 수 있다.
+ */
+@Component
+public class CountCache {
+
+    private final ConcurrentMap<String, Entry> counts = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    public CountCache(@Value("${datajpa.count.cache-ttl:10s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long get(String key, LongSupplier countQuery) {
+        long now = System.nanoTime();
+        Entry entry = counts.get(key);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            return entry.count;
+        }
+        long count = countQuery.getAsLong();
+        counts.put(key, new Entry(count, now));
+        return count;
+    }
+
+    /**
+     * region 은 키의 첫번째 부분(엔티티명)이다.
+     */
+    public void invalidate(String region) {
+        String prefix = region + ":";
+        counts.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public void invalidateAll() {
+        counts.clear();
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long loadedAt;
+
+        private Entry(long count, long loadedAt) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package study.datajpa.repository.support;
+
+/**
+ * [Page 의 전체 데이터 수(totalCount)를 구하는 방법]
+ * <p>
+ * EXACT : 매 요청마다 count 쿼리를 실행한다. (기존 Page 동작)
+ * CACHED : count 결과를 쿼리 + 파라미터별로 TTL 동안 캐시한다. 회원이 저장/삭제/벌크 수정되면 캐시를 비운다.
+ * ESTIMATED : 데이터베이스 통계 정보의 추정치를 사용한다. (조건이 없는 전체 조회에서만 사용, 그 외에는 CACHED 로 동작)
+ */
+public enum CountStrategy {
+    EXACT, CACHED, ESTIMATED
+}
@@ -0,0 +1,39 @@
+package study.datajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * [IN 목록 분할 조회]
+ * <p>
+ * "where x in (:values)" 에 값을 수천, 수만 개 넣으면 드라이버/DB 의 파라미터 수 제한을 넘고, SQL 파싱 비용도 커진다.
+ * -> 중복을 제거한 뒤 chunkSize 개씩 나눠서 같은 쿼리를 여러 번 실행하고 결과를 이어 붙인다.
+ * -> 호출한 쪽의 영속성 컨텍스트(트랜잭션)에서 순서대로 실행하므로 조회한 엔티티는 모두 영속 상태다.
+ * <p>
+ * hibernate.query.in_clause_parameter_padding 과 함께 사용하면 파라미터 수가 2의 거듭제곱으로 맞춰지므로
+ * chunkSize 도 2의 거듭제곱(1024 등)으로 정하면 마지막 조각을 빼고는 모두 같은 SQL 이 된다.
+ */
+public final class InClauseChunks {
+
+    private InClauseChunks() {
+    }
+
+    public static <T, R> List<R> query(Collection<T> values, int chunkSize, Function<List<T>, List<R>> query) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (distinct.size() <= chunkSize) {
+            return query.apply(distinct);
+        }
+
+        List<R> result = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            result.addAll(query.apply(distinct.subList(from, Math.min(from + chunkSize, distinct.size()))));
+        }
+        return result;
+    }
+}
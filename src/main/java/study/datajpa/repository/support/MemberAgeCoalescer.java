@@ -0,0 +1,254 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * [회원 나이 증가 모아서 쓰기]
+ * <p>
+ * 같은 회원의 나이를 1씩 올리는 요청마다 "update member set age = age + 1" 을 실행하면
+ * -> 몇 개의 행에 수정이 몰려서 행 락을 기다리고, 요청마다 트랜잭션 + 커밋 비용이 든다.
+ * <p>
+ * [동작]
+ * 1. add() 는 메모리의 칸(회원 id -> 누적값)에 더하기만 한다. (SQL 없음)
+ * -> 칸은 스레드별로 나눈 stripe 에 있다. (LongAdder 처럼 스레드끼리 같은 락을 다투지 않는다)
+ * 2. flush-interval 마다(또는 flush() 호출 시) stripe 들을 비우고 회원별로 합친다.
+ * 3. 회원 한 명당 "update member set age = age + ? ..." 하나를 JDBC 배치로 묶어서 한 트랜잭션으로 실행한다.
+ * -> id 순서로 수정하므로 다른 flush 나 분할 벌크 수정과 락 순서가 엇갈리지 않는다.
+ * -> @Version 도 올린다. (이 회원을 읽어둔 낙관적 락 트랜잭션이 충돌을 감지한다)
+ * 4. 실패하면 합친 값을 다시 칸에 넣고 다음 주기에 재시도한다.
+ * <p>
+ * [주의]
+ * flush 전까지는 DB 에 반영되지 않는다. (읽기 직후 값이 필요하면 flush() 를 먼저 호출한다)
+ * 애플리케이션이 정상 종료되면 남은 값을 쓰고 끝나지만(destroy), 프로세스가 죽으면 마지막 주기의 값은 사라진다.
+ * <p>
+ * 메트릭 (/actuator/metrics)
+ * datajpa.coalescer.increments : add() 호출 수
+ * datajpa.coalescer.flushed.rows : flush 로 수정한 행 수
+ * datajpa.coalescer.ratio : flush 로 쓴 add() 호출 수 / flushed.rows (클수록 많이 모아서 쓴 것)
+ * datajpa.coalescer.pending : 아직 쓰지 않은 회원 수
+ */
+@Slf4j
+@Component
+public class MemberAgeCoalescer implements DisposableBean {
+
+    static final String UPDATE_SQL = "update member set age = age + ?, version = version + 1," +
+            " last_modified_date = current_timestamp where member_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory emf;
+    private final ScheduledExecutorService scheduler;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    private final LongAdder increments = new LongAdder();
+    private final LongAdder flushedIncrements = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public MemberAgeCoalescer(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory emf,
+                              MeterRegistry meterRegistry,
+                              @Value("${datajpa.coalescer.flush-interval:1s}") Duration flushInterval,
+                              @Value("${datajpa.coalescer.stripes:0}") int stripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.emf = emf;
+
+        int count = Integer.highestOneBit(Math.max(stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 4, 1) * 2 - 1);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("age-coalescer-"));
+        long interval = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::scheduledFlush, interval, interval, TimeUnit.MILLISECONDS);
+
+        FunctionCounter.builder("datajpa.coalescer.increments", increments, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("datajpa.coalescer.flushed.rows", flushedRows, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("datajpa.coalescer.flush.failures", failures, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("datajpa.coalescer.ratio", this, MemberAgeCoalescer::getCoalescingRatio).register(meterRegistry);
+        Gauge.builder("datajpa.coalescer.pending", this, MemberAgeCoalescer::getPending).register(meterRegistry);
+    }
+
+    /**
+     * 회원 나이에 delta 를 더한다. (다음 flush 에 반영)
+     */
+    public void add(long memberId, int delta) {
+        increments.increment();
+        accumulate(memberId, delta, 1);
+    }
+
+    /**
+     * 칸 : {누적값, add() 호출 수}
+     */
+    private void accumulate(long memberId, long delta, long count) {
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & mask];
+        synchronized (stripe) {
+            long[] cell = stripe.cells.computeIfAbsent(memberId, id -> new long[2]);
+            cell[0] += delta;
+            cell[1] += count;
+        }
+    }
+
+    /**
+     * 모아둔 값을 DB 에 쓴다.
+     *
+     * @return 수정한 행 수
+     */
+    public synchronized int flush() {
+        Map<Long, long[]> deltas = drain();
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        long merged = 0;
+        for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+            if (entry.getValue()[0] != 0) {
+                args.add(new Object[]{entry.getValue()[0], entry.getKey()});
+            }
+            merged += entry.getValue()[1];
+        }
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, args));
+        } catch (RuntimeException e) {
+            failures.increment();
+            deltas.forEach((id, cell) -> accumulate(id, cell[0], cell[1])); // 다음 주기에 다시 쓴다.
+            throw e;
+        }
+
+        // 커밋한 뒤 : 여기서 실패해도 다시 쓰면 안 된다. (나이와 version 이 두번 오른다)
+        int rows = 0;
+        for (int count : counts) {
+            rows += Math.max(count, 0); // 삭제된 회원은 0
+        }
+        try {
+            flushes.increment();
+            flushedIncrements.add(merged);
+            flushedRows.add(args.size());
+            evict(deltas.keySet());
+        } catch (RuntimeException e) {
+            log.warn("회원 나이 flush 후처리(캐시 비우기, 지표) 실패 - 수정은 커밋되었습니다.", e);
+        }
+        log.debug("회원 {}명 수정 (누적 {}회 -> {}행)", rows, increments.sum(), flushedRows.sum());
+        return rows;
+    }
+
+    /**
+     * stripe 마다 칸을 새 맵으로 바꾸고, 떼어낸 칸들을 회원 id 순서로 합친다.
+     */
+    private Map<Long, long[]> drain() {
+        Map<Long, long[]> deltas = new TreeMap<>();
+        for (Stripe stripe : stripes) {
+            Map<Long, long[]> cells;
+            synchronized (stripe) {
+                if (stripe.cells.isEmpty()) {
+                    continue;
+                }
+                cells = stripe.cells;
+                stripe.cells = new HashMap<>();
+            }
+            cells.forEach((id, cell) -> deltas.merge(id, cell, (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]}));
+        }
+        return deltas;
+    }
+
+    /**
+     * 커밋한 뒤에 2차 캐시를 비운다. (JDBC 로 수정하면 Hibernate 가 변경을 알 수 없다)
+     */
+    private void evict(Set<Long> ids) {
+        for (Long id : ids) {
+            emf.getCache().evict(Member.class, id);
+        }
+        emf.getCache().unwrap(org.hibernate.Cache.class).evictQueryRegions();
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("회원 나이 flush 실패 - 다음 주기에 다시 시도합니다.", e);
+        }
+    }
+
+    /**
+     * 스케줄러를 멈추고 남은 값을 쓴다.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        int rows = flush();
+        if (rows > 0) {
+            log.info("종료 전 회원 {}명의 나이를 반영했습니다.", rows);
+        }
+    }
+
+    public long getIncrements() {
+        return increments.sum();
+    }
+
+    public long getFlushedRows() {
+        return flushedRows.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    /**
+     * add() 호출 수 / 수정한 행 수 (flush 전이면 0)
+     */
+    public double getCoalescingRatio() {
+        long rows = flushedRows.sum();
+        return rows == 0 ? 0 : (double) flushedIncrements.sum() / rows;
+    }
+
+    /**
+     * 아직 쓰지 않은 회원 수 (stripe 가 달라도 같은 회원이면 각각 센다)
+     */
+    public int getPending() {
+        int pending = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                pending += stripe.cells.size();
+            }
+        }
+        return pending;
+    }
+
+    private static final class Stripe {
+        private Map<Long, long[]> cells = new HashMap<>();
+    }
+}
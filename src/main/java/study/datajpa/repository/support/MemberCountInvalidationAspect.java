@@ -0,0 +1,54 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * [회원 count 캐시 무효화]
+ * <p>
+ * MemberRepository, MemberJpaRepository 의 저장/삭제/벌크 수정 메소드가 끝나면 회원 count 캐시를 비운다.
+ * <p>
+ * 트랜잭션 안이라면 커밋 전에 다른 요청이 이전 값을 다시 캐시할 수 있으므로
+ * 트랜잭션이 끝난 뒤(afterCompletion)에 한번 더 비운다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MemberCountInvalidationAspect {
+
+    public static final String REGION = "Member";
+
+    private final CountCache countCache;
+
+    @AfterReturning("this(study.datajpa.repository.MemberRepository)" +
+            " && (execution(* save*(..)) || execution(* delete*(..)) || execution(* bulk*(..)))")
+    public void afterMemberRepositoryWrite() {
+        invalidate();
+    }
+
+    @AfterReturning("within(study.datajpa.repository.MemberJpaRepository)" +
+            " && (execution(* save(..)) || execution(* delete(..)) || execution(* bulk*(..)))")
+    public void afterMemberJpaRepositoryWrite() {
+        invalidate();
+    }
+
+    private void invalidate() {
+        countCache.invalidate(REGION);
+        // saveAll 처럼 한 트랜잭션에서 여러번 호출되어도 트랜잭션당 한번만 등록한다.
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MemberCountInvalidationAspect.this);
+                    countCache.invalidate(REGION);
+                }
+            });
+        }
+    }
+}
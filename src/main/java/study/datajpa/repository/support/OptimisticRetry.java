@@ -0,0 +1,37 @@
+package study.datajpa.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * [낙관적 락 충돌 시 다시 시도]
+ * <p>
+ * 메소드가 낙관적 락 충돌(@Version)로 실패하면 잠깐 기다렸다가 메소드 전체를 다시 실행한다. (OptimisticRetryExecutor)
+ * -> @Transactional 과 함께 사용한다. 다시 시도할 때마다 새 트랜잭션, 새 영속성 컨텍스트로 최신 값을 다시 읽는다.
+ * -> 이미 트랜잭션 안에서 호출되면 다시 시도하지 않는다. (바깥 트랜잭션이 오래된 값을 들고 있다)
+ * <p>
+ * 0 이면 datajpa.optimistic-retry 설정값을 사용한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OptimisticRetry {
+
+    /**
+     * 처음 실행을 포함한 최대 실행 횟수
+     */
+    int maxAttempts() default 0;
+
+    /**
+     * 첫 번째 재시도 전 최대 대기 시간 (ms), 재시도할 때마다 2배
+     */
+    long backoffMillis() default 0;
+
+    /**
+     * 대기 시간의 상한 (ms)
+     */
+    long maxBackoffMillis() default 0;
+}
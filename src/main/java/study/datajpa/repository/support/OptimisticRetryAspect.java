@@ -0,0 +1,51 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * [@OptimisticRetry 처리]
+ * <p>
+ * @Transactional(기본 순서 LOWEST_PRECEDENCE) 보다 바깥에서 실행해야 한다.
+ * -> 충돌은 커밋(flush)할 때 발생하므로 트랜잭션이 끝난 뒤에 예외를 잡아서 새 트랜잭션으로 다시 호출한다.
+ * (HIGHEST_PRECEDENCE 로 두면 ExposeInvocationInterceptor 보다 먼저 실행되어 @annotation(retry) 를 바인딩하지 못한다)
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class OptimisticRetryAspect {
+
+    private final OptimisticRetryExecutor executor;
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, OptimisticRetry retry) throws Throwable {
+        try {
+            return executor.execute(retry, () -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new CheckedException(e);
+                }
+            });
+        } catch (CheckedException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 메소드가 던진 checked 예외를 Supplier 밖으로 전달한다.
+     */
+    private static class CheckedException extends RuntimeException {
+        private CheckedException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
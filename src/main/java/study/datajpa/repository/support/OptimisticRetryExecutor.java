@@ -0,0 +1,138 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.OptimisticLockException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * [낙관적 락 재시도 실행기]
+ * <p>
+ * PESSIMISTIC_WRITE(select ... for update)는 같은 행을 수정하는 트랜잭션을 한 줄로 세운다.
+ * -> 커넥션을 잡은 채로 락을 기다리므로 요청이 몰리면 커넥션 풀까지 막힌다.
+ * @Version 은 락 없이 읽고, 커밋할 때 충돌한 트랜잭션만 실패한다. -> 실패한 작업을 여기서 다시 실행한다.
+ * <p>
+ * [대기 시간] (exponential backoff + full jitter)
+ * n 번째 재시도 전에 0 ~ min(maxBackoff, backoff * 2^(n-1)) 사이의 임의 시간만큼 기다린다.
+ * -> 동시에 충돌한 트랜잭션들이 같은 시각에 다시 충돌하지 않도록 흩어 놓는다.
+ * <p>
+ * 최대 횟수까지 실패하면 마지막 예외를 그대로 던진다.
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public OptimisticRetryExecutor(@Value("${datajpa.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${datajpa.optimistic-retry.backoff:5ms}") Duration backoff,
+                                   @Value("${datajpa.optimistic-retry.max-backoff:100ms}") Duration maxBackoff) {
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    /**
+     * 설정값(datajpa.optimistic-retry)으로 실행한다.
+     */
+    public <T> T execute(Supplier<T> action) {
+        return execute(0, 0, 0, action);
+    }
+
+    public <T> T execute(OptimisticRetry retry, Supplier<T> action) {
+        return execute(retry.maxAttempts(), retry.backoffMillis(), retry.maxBackoffMillis(), action);
+    }
+
+    /**
+     * 0 인 값은 설정값을 사용한다.
+     */
+    public <T> T execute(int maxAttempts, long backoffMillis, long maxBackoffMillis, Supplier<T> action) {
+        int attempts = maxAttempts > 0 ? maxAttempts : this.maxAttempts;
+        long backoff = backoffMillis > 0 ? backoffMillis : this.backoffMillis;
+        long maxBackoff = maxBackoffMillis > 0 ? maxBackoffMillis : this.maxBackoffMillis;
+
+        // 바깥 트랜잭션은 이미 오래된 값을 읽었고 롤백 전용이 되었으므로 다시 시도해도 성공할 수 없다.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            attempts = 1;
+        }
+
+        calls.increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                conflicts.increment();
+                if (attempt >= attempts) {
+                    failures.increment();
+                    throw e;
+                }
+                log.debug("낙관적 락 충돌 - {}번째 재시도 : {}", attempt, e.getMessage());
+                sleep(ThreadLocalRandom.current().nextLong(Math.min(maxBackoff, backoff << Math.min(attempt - 1, 30)) + 1));
+            }
+        }
+    }
+
+    /**
+     * 스프링 예외 변환 전(OptimisticLockException)과 후(ObjectOptimisticLockingFailureException), 원인에 포함된 경우
+     */
+    static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static void sleep(long millis) {
+        if (millis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도를 기다리는 중 인터럽트되었습니다.", e);
+        }
+    }
+
+    /**
+     * 실행한 작업 수
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * 충돌로 실패한 실행 횟수 (재시도한 횟수 + 최종 실패 수)
+     */
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    /**
+     * 최대 횟수까지 충돌해서 실패한 작업 수
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,212 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * [id 구간 병렬 조회]
+ * <p>
+ * 큰 테이블을 offset 페이징(findAll(pageable))으로 처음부터 끝까지 읽으면
+ * -> 페이지마다 offset 만큼 읽고 버리므로 뒤로 갈수록 느려지고, 한 스레드(커넥션)에서 순서대로 실행된다.
+ * <p>
+ * [동작]
+ * 1. 조회 시작 시점의 (min id, max id) 를 partitions 개 구간으로 나눈다.
+ * 2. 구간마다 작업 스레드 풀(datajpa.scan.threads)에서 "id > 마지막 id and id <= 구간 끝" 을 batchSize 건씩 조회한다.
+ * -> 배치마다 짧은 읽기 전용 트랜잭션을 사용하므로 커넥션은 조회하는 동안만 잡는다.
+ * 3. 조회한 배치는 크기가 제한된 큐에 넣고, 호출한 쪽은 Stream 으로 큐에서 꺼내 읽는다.
+ * -> 읽는 쪽이 느리면 큐가 가득 차서 작업 스레드가 기다린다. (전체 결과를 메모리에 올리지 않는다)
+ * <p>
+ * 구간 사이의 순서는 보장하지 않는다. (구간 안에서는 id 순서)
+ * 다 읽지 않은 Stream 은 반드시 close 해야 남은 구간을 멈춘다. (try-with-resources)
+ */
+@Slf4j
+@Component
+public class PartitionedScanner implements DisposableBean {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final int threads;
+
+    public PartitionedScanner(PlatformTransactionManager transactionManager,
+                              @Value("${datajpa.scan.threads:4}") int threads) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("partitioned-scan-"));
+        this.threads = threads;
+    }
+
+    /**
+     * 구간 하나를 배치 단위로 읽는 쿼리
+     */
+    public interface RangeQuery<T> {
+
+        /**
+         * 조회 대상의 {min id, max id}, 대상이 없으면 null
+         */
+        long[] idRange();
+
+        /**
+         * afterId < id <= lastId 인 행을 id 순서로 limit 개
+         */
+        List<T> fetch(long afterId, long lastId, int limit);
+
+        long idOf(T row);
+    }
+
+    /**
+     * @param partitions 구간 수 (0 이면 datajpa.scan.threads)
+     */
+    public <T> Stream<T> scan(int partitions, int batchSize, RangeQuery<T> query) {
+        long[] range = readOnlyTransaction.execute(status -> query.idRange());
+        if (range == null) {
+            return Stream.empty();
+        }
+
+        long size = range[1] - range[0] + 1;
+        int count = (int) Math.min(partitions > 0 ? partitions : threads, size);
+        long step = (size + count - 1) / count;
+
+        Scan<T> scan = new Scan<>(count);
+        for (int i = 0; i < count; i++) {
+            long afterId = range[0] - 1 + i * step;
+            long lastId = Math.min(afterId + step, range[1]);
+            scan.futures.add(executor.submit(() -> scan.read(query, afterId, lastId, batchSize)));
+        }
+        log.debug("구간 {}개 조회 시작 : id {} ~ {}", count, range[0], range[1]);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(scan, Spliterator.NONNULL), false)
+                .onClose(scan::close);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 구간들이 큐에 넣은 배치를 하나의 Iterator 로 합친다.
+     */
+    private class Scan<T> implements Iterator<T> {
+
+        private final BlockingQueue<Batch<T>> queue;
+        private final List<Future<?>> futures = new ArrayList<>();
+        private int remaining;
+        private Iterator<T> current = Collections.emptyIterator();
+        private volatile boolean closed;
+
+        private Scan(int partitions) {
+            this.queue = new ArrayBlockingQueue<>(partitions * 2);
+            this.remaining = partitions;
+        }
+
+        private void read(RangeQuery<T> query, long afterId, long lastId, int batchSize) {
+            try {
+                long after = afterId;
+                while (!closed) {
+                    long from = after;
+                    List<T> rows = readOnlyTransaction.execute(status -> query.fetch(from, lastId, batchSize));
+                    if (!rows.isEmpty()) {
+                        put(new Batch<>(rows, null));
+                        after = query.idOf(rows.get(rows.size() - 1));
+                    }
+                    if (rows.size() < batchSize) {
+                        break;
+                    }
+                }
+                put(new Batch<>(null, null)); // 구간 끝
+            } catch (RuntimeException e) {
+                put(new Batch<>(null, e));
+            }
+        }
+
+        /**
+         * 큐가 가득 차면 자리가 날 때까지 기다린다. (close 되면 버린다)
+         */
+        private void put(Batch<T> batch) {
+            try {
+                while (!closed) {
+                    if (queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (remaining == 0) {
+                    return false;
+                }
+                Batch<T> batch = take();
+                if (batch.failure != null) {
+                    close();
+                    throw batch.failure;
+                }
+                if (batch.rows == null) {
+                    remaining--;
+                } else {
+                    current = batch.rows.iterator();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private Batch<T> take() {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("구간 조회를 기다리는 중 인터럽트되었습니다.", e);
+            }
+        }
+
+        private void close() {
+            closed = true;
+            futures.forEach(future -> future.cancel(false)); // 아직 시작하지 않은 구간
+            queue.clear();
+        }
+    }
+
+    private static class Batch<T> {
+        private final List<T> rows;
+        private final RuntimeException failure;
+
+        private Batch(List<T> rows, RuntimeException failure) {
+            this.rows = rows;
+            this.failure = failure;
+        }
+    }
+}
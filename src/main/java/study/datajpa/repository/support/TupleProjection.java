@@ -0,0 +1,96 @@
+package study.datajpa.repository.support;
+
+import javax.persistence.Tuple;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * [Tuple -> 클래스 프로젝션]
+ * <p>
+ * 인터페이스 프로젝션(UsernameOnly)은 행마다
+ * -> JDK 동적 프록시 + 값을 담은 Map 을 만들고, getter 를 호출할 때마다 리플렉션으로 값을 찾는다.
+ * 클래스 프로젝션은 조회한 컬럼을 생성자에 바로 넘긴다. (행마다 객체 하나)
+ * <p>
+ * [동작]
+ * 1. 만들 때(애플리케이션 시작 시 static final 필드) 생성자를 찾아서 MethodHandle 로 만든다.
+ * -> 생성자가 없으면 첫 조회가 아니라 시작할 때 실패한다.
+ * 2. map() 은 Tuple 의 값 배열을 select 절 순서대로 생성자 파라미터에 넘긴다. (별칭이 아닌 위치로 매핑)
+ * -> 첫 행에서 컬럼 수와 타입이 생성자와 맞는지 확인한다.
+ * <p>
+ * 중첩 프로젝션(회원 + 팀 이름)은 join 한 컬럼을 select 절에 이어서 쓰고 생성자에서 받는다. (MemberDto)
+ */
+public final class TupleProjection<T> {
+
+    private final Class<T> type;
+    private final Class<?>[] parameterTypes;
+    private final MethodHandle constructor;
+
+    private TupleProjection(Class<T> type, Class<?>[] parameterTypes) {
+        this.type = type;
+        this.parameterTypes = parameterTypes;
+        try {
+            this.constructor = MethodHandles.publicLookup()
+                    .findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getSimpleName() + " 에 public 생성자 " + signature() + " 가 없습니다.", e);
+        }
+    }
+
+    /**
+     * @param parameterTypes select 절 순서대로 생성자 파라미터 타입
+     */
+    public static <T> TupleProjection<T> of(Class<T> type, Class<?>... parameterTypes) {
+        return new TupleProjection<>(type, parameterTypes.clone());
+    }
+
+    public T map(Tuple tuple) {
+        return map(tuple.toArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    public T map(Object[] values) {
+        try {
+            return (T) constructor.invokeExact(values);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(type.getSimpleName() + " 생성자에서 예외가 발생했습니다.", e);
+        }
+    }
+
+    public List<T> mapAll(List<Tuple> tuples) {
+        if (!tuples.isEmpty()) {
+            verify(tuples.get(0).toArray());
+        }
+        return tuples.stream().map(this::map).collect(Collectors.toList());
+    }
+
+    /**
+     * 컬럼 수와 타입이 생성자와 맞지 않으면 WrongMethodTypeException / ClassCastException 대신 어떤 컬럼인지 알려준다.
+     */
+    private void verify(Object[] values) {
+        if (values.length != parameterTypes.length) {
+            throw new IllegalArgumentException(type.getSimpleName() + signature() + " 에 컬럼 " + values.length + "개를 넘길 수 없습니다.");
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null ? parameterTypes[i].isPrimitive() : !wrap(parameterTypes[i]).isInstance(values[i])) {
+                throw new IllegalArgumentException(type.getSimpleName() + signature() + " 의 " + (i + 1) + "번째 파라미터에 "
+                        + (values[i] == null ? "null" : values[i].getClass().getSimpleName()) + " 를 넘길 수 없습니다.");
+            }
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private String signature() {
+        return Arrays.stream(parameterTypes).map(Class::getSimpleName).collect(Collectors.joining(", ", "(", ")"));
+    }
+}
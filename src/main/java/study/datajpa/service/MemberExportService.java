@@ -0,0 +1,94 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * [회원 전체 내보내기]
+ * <p>
+ * MemberRepository.streamAll() 로 한 건씩 읽어서 바로 OutputStream 에 쓴다.
+ * -> 전체 결과를 메모리에 올리지 않는다.
+ * <p>
+ * 스트림을 읽는 동안 커넥션(커서)이 열려 있어야 하므로 쓰기가 끝날 때까지 트랜잭션을 유지한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${datajpa.export.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * NDJSON : 한 줄에 JSON 객체 하나
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Member> members = memberRepository.streamAll(fetchSize);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // 응답 스트림은 닫지 않는다.
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            Iterator<Member> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(new MemberDto(iterator.next()));
+                count++;
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return count;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportCsv(OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Member> members = memberRepository.streamAll(fetchSize)) {
+            writer.write("id,username,teamName\n");
+
+            Iterator<Member> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                MemberDto dto = new MemberDto(iterator.next());
+                writer.write(dto.getId() + "," + csv(dto.getUsername()) + "," + csv(dto.getTeamName()) + "\n");
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * 쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두번 쓴다. (RFC 4180)
+     */
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
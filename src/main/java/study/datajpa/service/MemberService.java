@@ -0,0 +1,58 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.MemberAgeCoalescer;
+import study.datajpa.repository.support.OptimisticRetry;
+
+import java.util.List;
+
+/**
+ * [같은 회원을 동시에 수정하기]
+ * <p>
+ * addAgeLocked : 비관적 락 (findLockByUsername, select ... for update)
+ * -> 먼저 조회한 트랜잭션이 커밋할 때까지 나머지는 락을 기다린다. (커넥션을 잡은 채로 대기, 오래 걸리면 락 타임아웃)
+ * addAge : 낙관적 락 (@Version) + @OptimisticRetry
+ * -> 락 없이 조회하고, 커밋할 때 버전이 바뀌었으면 트랜잭션 전체를 다시 실행한다.
+ * -> 충돌이 드물수록(서로 다른 회원을 수정할수록) 유리하다.
+ * addAgeCoalesced : 메모리에 모아서 주기적으로 한번에 쓴다. (MemberAgeCoalescer)
+ * -> 락도 트랜잭션도 없다. 대신 flush 전까지는 DB 에 반영되지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberRepository memberRepository;
+    private final MemberAgeCoalescer memberAgeCoalescer;
+
+    /**
+     * @return 수정한 회원 수
+     */
+    @Transactional
+    public int addAgeLocked(String username, int delta) {
+        List<Member> members = memberRepository.findLockByUsername(username);
+        members.forEach(member -> member.setAge(member.getAge() + delta));
+        return members.size();
+    }
+
+    /**
+     * @return 수정한 회원 수
+     */
+    @OptimisticRetry
+    @Transactional
+    public int addAge(String username, int delta) {
+        List<Member> members = memberRepository.findListByUsername(username);
+        members.forEach(member -> member.setAge(member.getAge() + delta));
+        return members.size();
+    }
+
+    /**
+     * 같은 회원에 몰리는 증가 요청 (조회수, 포인트처럼 최종 합계만 중요한 값)
+     */
+    public void addAgeCoalesced(Long memberId, int delta) {
+        memberAgeCoalescer.add(memberId, delta);
+    }
+}
@@ -0,0 +1,90 @@
+package study.datajpa.config;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+
+/**
+ * OSIV 세션을 그대로 사용해야 하므로 테스트 트랜잭션을 사용하지 않는다. (별도의 메모리 DB)
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:read-only-request")
+@AutoConfigureMockMvc
+@Import(ReadOnlyRequestInterceptorTest.SessionStateController.class)
+class ReadOnlyRequestInterceptorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    /**
+     * 트랜잭션 없이 OSIV 세션으로 회원을 조회하고 세션 상태를 반환한다.
+     * "기본 읽기 전용,FlushMode,조회한 회원의 읽기 전용 여부"
+     */
+    @RestController
+    static class SessionStateController {
+
+        @PersistenceContext
+        EntityManager em;
+
+        @RequestMapping("/test/session-state")
+        public String state(@RequestParam("username") String username) {
+            Member member = em.createQuery("select m from Member m where m.username = :username", Member.class)
+                    .setParameter("username", username)
+                    .getSingleResult();
+            Session session = em.unwrap(Session.class);
+            return session.isDefaultReadOnly() + "," + session.getHibernateFlushMode() + "," + session.isReadOnly(member);
+        }
+    }
+
+    @Test
+    public void getIsReadOnly() throws Exception {
+        memberRepository.save(new Member("readOnlyGet", 10));
+
+        mockMvc.perform(get("/test/session-state").param("username", "readOnlyGet"))
+                .andExpect(content().string("true,MANUAL,true"));
+    }
+
+    @Test
+    public void postIsNotReadOnly() throws Exception {
+        memberRepository.save(new Member("readOnlyPost", 10));
+
+        mockMvc.perform(post("/test/session-state").param("username", "readOnlyPost"))
+                .andExpect(content().string("false,AUTO,false"));
+    }
+
+    /**
+     * 리포지토리는 기본이 읽기 전용 트랜잭션이지만, 수정 메소드는 쓰기 트랜잭션으로 실행된다.
+     */
+    @Test
+    public void modifyingQueryOutsideTransaction() throws Exception {
+        memberRepository.save(new Member("readOnlyModifying", 10));
+
+        assertThat(memberRepository.bulkAgePlus(10)).isEqualTo(1);
+        assertThat(memberRepository.findListByUsername("readOnlyModifying").get(0).getAge()).isEqualTo(11);
+    }
+}
@@ -0,0 +1,190 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.CountStrategy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 메모리 H2 두 개를 primary, 복제본으로 사용한다. (실제 복제는 하지 않는다)
+ * -> 테스트 전에 primary 의 스키마만 복제본에 복사하므로 primary 에 쓴 데이터는 복제본에 없다.
+ * -> 어느 DB 에서 읽었는지는 database() 와 조회 결과로 구분한다.
+ * <p>
+ * read-after-write 를 기록하지 않도록 데이터는 트랜잭션 없이 JdbcTemplate 으로 넣고 지운다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "datajpa.replica.urls=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "datajpa.replica.read-after-write=300ms",
+        "datajpa.replica.check-interval=1h"
+})
+class ReplicaRoutingTest {
+
+    static final String LAG_QUERY = "select coalesce(max(seconds), 0) from replica_lag";
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    ReplicaRoutingDataSource router;
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void replicateSchema() throws Exception {
+        router = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        replica = new JdbcTemplate(router.getReplicas().get(0));
+        List<String> schema = jdbcTemplate.queryForList("script nodata", String.class);
+        replica.execute("drop all objects");
+        schema.forEach(replica::execute);
+        replica.execute("create table replica_lag (seconds int)");
+        router.checkReplicas(LAG_QUERY, Duration.ofSeconds(5));
+        router.clearLastWrite();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from member");
+    }
+
+    @Test
+    public void readOnlyTransactionUsesReplica() {
+        assertThat(database(true)).isEqualTo("ROUTING-REPLICA");
+        assertThat(database(false)).isEqualTo("ROUTING-PRIMARY");
+        assertThat(jdbcTemplate.queryForObject("call database()", String.class)).isEqualTo("ROUTING-PRIMARY");
+    }
+
+    /**
+     * MemberRepository, MemberRepositoryCustom 의 조회 메소드는 @Transactional(readOnly = true) -> 복제본
+     * (findDtoPage : /members, /members2, /members3, findKeysetPage : /members/keyset)
+     */
+    @Test
+    public void repositoryReadsFromReplica() {
+        insertMemberOnPrimary("primaryOnly");
+
+        assertThat(memberRepository.findByUsername("primaryOnly")).isEmpty();
+        assertThat(memberRepository.findListByUsername("primaryOnly")).isEmpty();
+        assertThat(memberRepository.findDtoPage(PageRequest.of(0, 10), CountStrategy.EXACT)).isEmpty();
+        assertThat(memberRepository.findKeysetPage(null, 10)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member", Long.class)).isEqualTo(1);
+    }
+
+    /**
+     * 쓰기 트랜잭션을 커밋한 스레드는 read-after-write 동안 primary 에서 읽는다.
+     */
+    @Test
+    public void readAfterWrite() throws Exception {
+        memberRepository.save(new Member("written", 10));
+
+        assertThat(memberRepository.findListByUsername("written")).hasSize(1);
+        assertThat(database(true)).isEqualTo("ROUTING-PRIMARY");
+
+        Thread.sleep(400);
+        assertThat(memberRepository.findListByUsername("written")).isEmpty();
+        assertThat(database(true)).isEqualTo("ROUTING-REPLICA");
+    }
+
+    /**
+     * 복제 지연이 max-lag 보다 크거나 확인에 실패하면 primary 에서 읽는다.
+     */
+    @Test
+    public void laggingReplicaExcluded() {
+        replica.update("insert into replica_lag values (10)");
+        router.checkReplicas(LAG_QUERY, Duration.ofSeconds(5));
+        assertThat(database(true)).isEqualTo("ROUTING-PRIMARY");
+
+        replica.update("update replica_lag set seconds = 1");
+        router.checkReplicas(LAG_QUERY, Duration.ofSeconds(5));
+        assertThat(database(true)).isEqualTo("ROUTING-REPLICA");
+
+        router.checkReplicas("select seconds from missing_table", Duration.ofSeconds(5));
+        assertThat(database(true)).isEqualTo("ROUTING-PRIMARY");
+    }
+
+    @Test
+    public void balance() throws Exception {
+        List<HikariDataSource> replicas = List.of(pool("balance-replica1"), pool("balance-replica2"));
+        HikariDataSource primary = pool("balance-primary");
+
+        try (ReplicaRoutingDataSource roundRobin = new ReplicaRoutingDataSource(primary, replicas,
+                ReplicaRoutingDataSource.Balance.ROUND_ROBIN, Duration.ZERO)) {
+            assertThat(catalogs(roundRobin, 4)).containsExactly(
+                    "BALANCE-REPLICA1", "BALANCE-REPLICA2", "BALANCE-REPLICA1", "BALANCE-REPLICA2");
+        }
+
+        replicas = List.of(pool("balance-replica1"), pool("balance-replica2"));
+        try (ReplicaRoutingDataSource leastConnections = new ReplicaRoutingDataSource(pool("balance-primary"), replicas,
+                ReplicaRoutingDataSource.Balance.LEAST_CONNECTIONS, Duration.ZERO)) {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            try (Connection held = leastConnections.getConnection()) {
+                assertThat(held.getCatalog()).isEqualTo("BALANCE-REPLICA1");
+                assertThat(catalogs(leastConnections, 2)).containsExactly("BALANCE-REPLICA2", "BALANCE-REPLICA2");
+            } finally {
+                TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            }
+        }
+    }
+
+    private String database(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("call database()", String.class));
+    }
+
+    private void insertMemberOnPrimary(String username) {
+        jdbcTemplate.update("insert into member (member_id, username, age, version) values (next value for member_seq, ?, 10, 0)",
+                username);
+    }
+
+    /**
+     * 읽기 전용 트랜잭션에서 커넥션을 count 번 가져오고 반환한다.
+     */
+    private static List<String> catalogs(ReplicaRoutingDataSource dataSource, int count) throws Exception {
+        List<String> catalogs = new ArrayList<>();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            for (int i = 0; i < count; i++) {
+                try (Connection connection = dataSource.getConnection()) {
+                    catalogs.add(connection.getCatalog());
+                }
+            }
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        return catalogs;
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(2);
+        return new HikariDataSource(config);
+    }
+}
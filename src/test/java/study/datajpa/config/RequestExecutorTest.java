@@ -0,0 +1,123 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 비동기 요청은 다른 스레드에서 커밋된 데이터를 읽으므로 테스트 트랜잭션을 사용하지 않는다. (별도의 메모리 DB)
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:request-executor")
+@AutoConfigureMockMvc
+class RequestExecutorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    RequestExecutor requestExecutor;
+
+    @Autowired
+    ConnectionPoolSizer connectionPoolSizer;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void asyncList() throws Exception {
+        memberRepository.save(new Member("asyncMember", 10));
+
+        MvcResult result = mockMvc.perform(get("/async/members"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("asyncMember"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    public void asyncNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(get("/async/members/{id}", -1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * 기본 최대 동시 실행 수는 커넥션 풀 크기
+     */
+    @Test
+    public void maxConcurrencyIsConnectionPoolSize() {
+        int poolSize = connectionPoolSizer.getPoolSize();
+        assertThat(requestExecutor.getMaxConcurrency()).isEqualTo(poolSize);
+        assertThat(requestExecutor.getAvailablePermits()).isEqualTo(poolSize);
+    }
+
+    /**
+     * 자리가 없으면 acquireTimeout 이후 503 으로 실패하고, 자리가 나면 다시 실행된다.
+     */
+    @Test
+    public void bulkhead() throws Exception {
+        RequestExecutor executor = new RequestExecutor(Executors.newCachedThreadPool(), 1, Duration.ofMillis(100));
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<String> running = executor.submit(() -> {
+                started.countDown();
+                await(release);
+                return "first";
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            CompletableFuture<String> rejected = executor.submit(() -> "second");
+            assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .getCause().isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining(HttpStatus.SERVICE_UNAVAILABLE.toString());
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+            assertThat(executor.submit(() -> "third").get(5, TimeUnit.SECONDS)).isEqualTo("third");
+            assertThat(executor.getAvailablePermits()).isEqualTo(1);
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
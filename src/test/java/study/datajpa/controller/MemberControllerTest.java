@@ -0,0 +1,109 @@
+package study.datajpa.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.entity.Member;
+import study.datajpa.monitor.SqlStatementCountFilter;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 무한 스크롤 API (/members/keyset?age=, /members/slice)
+ * 도메인 클래스 컨버터 + 요청 범위 캐시 (/members2/{id}, /members2/usernames)
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:member-controller")
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    private void saveMembers() {
+        memberRepository.bulkInsert(IntStream.range(0, 5).mapToObj(i -> new Member("scroll" + i, 10)));
+        memberRepository.save(new Member("scroll9", 20));
+    }
+
+    @Test
+    public void keysetByAge() throws Exception {
+        saveMembers();
+
+        String body = mockMvc.perform(get("/members/keyset").param("age", "10").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username").value(contains("scroll4", "scroll3", "scroll2")))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(body, "$.nextCursor");
+
+        mockMvc.perform(get("/members/keyset").param("age", "10").param("size", "3").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username").value(contains("scroll1", "scroll0")))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    public void slice() throws Exception {
+        saveMembers();
+
+        mockMvc.perform(get("/members/slice").param("age", "10").param("page", "1").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username").value(contains("scroll1", "scroll0")))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    public void domainClassConverter() throws Exception {
+        Member member = memberRepository.save(new Member("converter", 10));
+
+        mockMvc.perform(get("/members2/{id}", member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("converter"))
+                .andExpect(header().string(SqlStatementCountFilter.HEADER, "1"));
+    }
+
+    /**
+     * 중복 id, 없는 id 가 섞여 있어도 findAllById 한번으로 조회한다.
+     */
+    @Test
+    public void domainClassConverterBatch() throws Exception {
+        Member member1 = memberRepository.save(new Member("batch1", 10));
+        Member member2 = memberRepository.save(new Member("batch2", 10));
+        String ids = member1.getId() + "," + member2.getId() + "," + member1.getId() + ",999999";
+
+        mockMvc.perform(get("/members2/usernames").param("ids", ids))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains("batch1", "batch2", "batch1", null)))
+                .andExpect(header().string(SqlStatementCountFilter.HEADER, "1"));
+    }
+
+    /**
+     * 숫자가 아닌 id 는 미리 조회하지 않고, 파라미터 바인딩에서 400 으로 응답한다.
+     */
+    @Test
+    public void domainClassConverterInvalidId() throws Exception {
+        mockMvc.perform(get("/members2/{id}", "abc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members2/usernames").param("ids", "x"))
+                .andExpect(status().isBadRequest());
+    }
+}
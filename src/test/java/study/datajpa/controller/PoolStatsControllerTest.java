@@ -0,0 +1,78 @@
+package study.datajpa.controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 테스트 트랜잭션이 커넥션을 잡고 있지 않도록 트랜잭션 없이 실행한다. (별도의 메모리 DB)
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:pool-stats")
+@AutoConfigureMockMvc
+class PoolStatsControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    /**
+     * datajpa.pool.size=0 -> (코어 수 * 2) + 1, 고정 크기 풀
+     */
+    @Test
+    public void poolSizeFromCores() throws Exception {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        int expected = Runtime.getRuntime().availableProcessors() * 2 + 1;
+
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(expected);
+        assertThat(hikari.getMinimumIdle()).isEqualTo(expected);
+        assertThat(hikari.getLeakDetectionThreshold()).isEqualTo(10000);
+    }
+
+    @Test
+    public void poolStats() throws Exception {
+        memberRepository.save(new Member("poolStats", 10));
+        memberRepository.findListByUsername("poolStats");
+
+        mockMvc.perform(get("/stats/pool"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.poolName").value("datajpa-pool"))
+                .andExpect(jsonPath("$.active").value(0))
+                .andExpect(jsonPath("$.total").value(greaterThan(0)))
+                .andExpect(jsonPath("$.acquire.count").value(greaterThan(0)))
+                .andExpect(jsonPath("$.acquire.p99Ms").value(greaterThanOrEqualTo(0.0)))
+                .andExpect(jsonPath("$.statements.select.count").value(greaterThan(0)))
+                .andExpect(jsonPath("$.statements.insert.count").value(greaterThan(0)));
+    }
+
+    @Test
+    public void actuatorMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/hikaricp.connections.pending"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/jdbc.statements").param("tag", "type:select"))
+                .andExpect(status().isOk());
+    }
+}
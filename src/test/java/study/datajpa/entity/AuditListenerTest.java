@@ -0,0 +1,145 @@
+package study.datajpa.entity;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.config.AuditTimeProvider;
+import study.datajpa.config.CoarseClock;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * datajpa.audit.fast=true : AuditListener 가 BaseTimeEntity, BaseEntity 필드에 바로 기록한다.
+ * 시각은 테스트용 Clock 빈(MutableClock)으로 정한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audit",
+        "datajpa.audit.fast=true"})
+@Transactional
+class AuditListenerTest {
+
+    static final LocalDateTime T0 = LocalDateTime.of(2021, 9, 1, 10, 0);
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        MutableClock testClock() {
+            return new MutableClock(T0.toInstant(ZoneOffset.UTC));
+        }
+    }
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MutableClock clock;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void createAndModify() {
+        clock.set(T0);
+        Member member = memberRepository.save(new Member("audit", 10));
+        em.flush();
+
+        assertThat(member.getCreatedDate()).isEqualTo(T0);
+        assertThat(member.getLastModifiedDate()).isEqualTo(T0);
+        assertThat(member.getCreatedBy()).isNotNull().isEqualTo(member.getLastModifiedBy());
+
+        clock.set(T0.plusMinutes(1));
+        member.setUsername("audit2");
+        em.flush();
+
+        assertThat(member.getCreatedDate()).isEqualTo(T0);
+        assertThat(member.getLastModifiedDate()).isEqualTo(T0.plusMinutes(1));
+    }
+
+    /**
+     * bulkInsert 도중 시계가 바뀌어도 모든 회원이 같은 등록일을 갖는다.
+     */
+    @Test
+    public void bulkInsertUsesOneTimestamp() {
+        clock.set(T0);
+        memberRepository.bulkInsert(IntStream.range(0, 10).mapToObj(i -> {
+            clock.set(T0.plusSeconds(i));
+            return new Member("auditBatch" + i, i);
+        }));
+
+        List<Member> members = em.createQuery("select m from Member m where m.username like 'auditBatch%'", Member.class)
+                .getResultList();
+        assertThat(members).hasSize(10)
+                .extracting(Member::getCreatedDate).containsOnly(T0);
+    }
+
+    @Test
+    public void nestedBatch() {
+        AuditTimeProvider provider = new AuditTimeProvider(clock);
+        clock.set(T0);
+        try (AuditTimeProvider.Batch outer = provider.batch()) {
+            clock.set(T0.plusSeconds(1));
+            try (AuditTimeProvider.Batch inner = provider.batch()) {
+                assertThat(provider.getNow()).contains(T0);
+            }
+            assertThat(provider.getNow()).contains(T0); // 안쪽 배치를 닫아도 바깥 배치의 시각
+        }
+        assertThat(provider.getNow()).contains(T0.plusSeconds(1));
+    }
+
+    @Test
+    public void coarseClock() throws Exception {
+        CoarseClock coarse = new CoarseClock(clock, Duration.ofMillis(50));
+        clock.set(T0);
+        Instant first = coarse.instant();
+
+        clock.set(T0.plusSeconds(1));
+        assertThat(coarse.instant()).isSameAs(first);
+
+        Thread.sleep(60);
+        assertThat(coarse.instant()).isEqualTo(T0.plusSeconds(1).toInstant(ZoneOffset.UTC));
+    }
+
+    static class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
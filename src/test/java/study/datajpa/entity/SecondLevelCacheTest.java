@@ -0,0 +1,91 @@
+package study.datajpa.entity;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.controller.CacheStatsController;
+import study.datajpa.dto.CacheRegionStatsDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 2차 캐시는 datajpa.cache.enabled=true 일 때만 동작한다.
+ * (다른 테스트와 데이터베이스를 공유하지 않도록 메모리 DB 를 사용한다)
+ * <p>
+ * READ_WRITE 캐시는 트랜잭션이 시작된 뒤에 캐시된 데이터는 읽지 않는다.
+ * -> 트랜잭션을 나눠서 확인한다.
+ */
+@SpringBootTest(properties = {
+        "datajpa.cache.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:second-level-cache"
+})
+class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    CacheStatsController cacheStatsController;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void teamCache() throws Exception {
+        // given
+        Long teamId = transactionTemplate.execute(status -> teamRepository.save(new Team("cacheTeam")).getId());
+
+        // when
+        long before = statistics.getPrepareStatementCount();
+        Team cached = transactionTemplate.execute(status -> teamRepository.findById(teamId).get());
+
+        // then
+        // 저장한 트랜잭션이 커밋될 때 2차 캐시에 들어갔으므로 쿼리가 나가지 않는다.
+        assertThat(cached.getName()).isEqualTo("cacheTeam");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(before);
+        assertThat(statistics.getDomainDataRegionStatistics("team").getHitCount()).isEqualTo(1);
+
+        List<CacheRegionStatsDto> stats = cacheStatsController.cacheStats();
+        assertThat(stats).extracting("region").contains("team", "team-members", "member");
+    }
+
+    @Test
+    public void queryCache() throws Exception {
+        // given
+        transactionTemplate.execute(status -> memberRepository.save(new Member("queryCache", 10)));
+
+        // when
+        transactionTemplate.execute(status -> memberRepository.findByUsername("queryCache"));
+        long before = statistics.getPrepareStatementCount();
+        List<Member> result = transactionTemplate.execute(status -> memberRepository.findByUsername("queryCache"));
+
+        // then
+        // 쿼리 결과(식별자)는 쿼리 캐시에서, Member 는 2차 캐시에서 꺼내므로 쿼리가 나가지 않는다.
+        assertThat(result).extracting("username").containsExactly("queryCache");
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(before);
+    }
+}
@@ -0,0 +1,97 @@
+package study.datajpa.monitor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:sql-profiler")
+@AutoConfigureMockMvc
+@ActiveProfiles("profiler")
+@Transactional
+class SqlProfilerTest {
+
+    @Autowired
+    SqlProfiler sqlProfiler;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    Environment environment;
+
+    @BeforeEach
+    void setUp() {
+        sqlProfiler.reset();
+    }
+
+    @Test
+    public void profilerProfile() {
+        assertThat(environment.getProperty("decorator.datasource.p6spy.enable-logging", Boolean.class)).isFalse();
+        assertThat(environment.getProperty("logging.level.org.hibernate.SQL")).isEqualTo("info");
+    }
+
+    /**
+     * 파라미터만 다른 SQL 은 하나의 모양으로 모인다.
+     */
+    @Test
+    public void groupByShape() {
+        for (int i = 0; i < 10; i++) {
+            memberRepository.findListByUsername("profiler" + i);
+        }
+
+        List<SqlShapeStats> top = sqlProfiler.top(SqlProfiler.Sort.FREQUENT, 1);
+        assertThat(top).hasSize(1);
+        SqlShapeStats stats = top.get(0);
+        assertThat(stats.getShape()).startsWith("select").contains("where member0_.username=?");
+        assertThat(stats.getCount()).isEqualTo(10);
+        assertThat(stats.getErrors()).isZero();
+        assertThat(stats.getPercentileNanos(0.99)).isPositive().isLessThanOrEqualTo(stats.getMaxNanos());
+    }
+
+    @Test
+    public void topEndpoint() throws Exception {
+        memberRepository.save(new Member("profilerEndpoint", 10));
+        for (int i = 0; i < 3; i++) {
+            memberRepository.findListByUsername("profilerEndpoint");
+        }
+
+        mockMvc.perform(get("/stats/sql").param("sort", "FREQUENT").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].shape").value(containsString("member0_.username=?")))
+                .andExpect(jsonPath("$[0].count").value(3));
+    }
+
+    @Test
+    public void percentile() {
+        SqlShapeStats stats = new SqlShapeStats("select 1");
+        for (int i = 0; i < 99; i++) {
+            stats.record(1_000_000, false); // 1ms -> 1024us 구간
+        }
+        stats.record(50_000_000, true); // 50ms
+
+        assertThat(stats.getCount()).isEqualTo(100);
+        assertThat(stats.getErrors()).isEqualTo(1);
+        assertThat(stats.getMaxNanos()).isEqualTo(50_000_000);
+        assertThat(stats.getPercentileNanos(0.5)).isEqualTo(1_024_000);
+        assertThat(stats.getPercentileNanos(0.99)).isEqualTo(1_024_000);
+        assertThat(stats.getPercentileNanos(1.0)).isEqualTo(50_000_000);
+    }
+}
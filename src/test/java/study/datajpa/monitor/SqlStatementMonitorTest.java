@@ -0,0 +1,137 @@
+package study.datajpa.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * datajpa.sql.fail-on-violation=true -> N + 1, 예산 초과가 예외로 드러난다.
+ * datajpa.batch.fetch-size=1 -> 배치 페치를 끄고 N + 1 을 재현한다.
+ */
+@SpringBootTest(properties = {
+        "datajpa.sql.fail-on-violation=true",
+        "datajpa.sql.n-plus-one-threshold=5",
+        "datajpa.batch.fetch-size=1",
+        "spring.datasource.url=jdbc:h2:mem:sql-statement-monitor"
+})
+@AutoConfigureMockMvc
+@Transactional
+class SqlStatementMonitorTest {
+
+    @Autowired
+    SqlStatementMonitor sqlStatementMonitor;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    private void saveMembersWithOwnTeam(int count) {
+        for (int i = 0; i < count; i++) {
+            Team team = teamRepository.save(new Team("team" + i));
+            memberRepository.save(new Member("member" + i, i, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void nPlusOne() throws Exception {
+        // given
+        saveMembersWithOwnTeam(6);
+
+        // when
+        SqlStatementStats stats = sqlStatementMonitor.begin("nPlusOne", 0);
+        try {
+            List<Member> members = memberRepository.findMemberCustom();
+
+            // then
+            assertThatThrownBy(() -> members.forEach(member -> member.getTeam().getName()))
+                    .isInstanceOf(SqlBudgetExceededException.class)
+                    .hasMessageContaining("N + 1");
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+    }
+
+    @Test
+    public void fetchJoin() throws Exception {
+        // given
+        saveMembersWithOwnTeam(6);
+
+        // when
+        SqlStatementStats stats = sqlStatementMonitor.begin("fetchJoin", 1);
+        try {
+            memberRepository.findMemberFetchJoin()
+                    .forEach(member -> member.getTeam().getName());
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+
+        // then
+        assertThat(stats.getCount()).isEqualTo(1);
+        assertThat(stats.getRepeatedSelects(2)).isEmpty();
+    }
+
+    @Test
+    public void budget() throws Exception {
+        SqlStatementStats stats = sqlStatementMonitor.begin("budget", 2);
+        try {
+            memberRepository.findListByUsername("a");
+            memberRepository.findListByUsername("b");
+
+            assertThatThrownBy(() -> memberRepository.findListByUsername("c"))
+                    .isInstanceOf(SqlBudgetExceededException.class)
+                    .hasMessageContaining("예산(2건)");
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(stats.isOverBudget()).isTrue();
+    }
+
+    @Test
+    public void shape() throws Exception {
+        assertThat(SqlStatementStats.shapeOf("select *  from member\n where id in (1, 2, 3) and name = 'a''b'"))
+                .isEqualTo("select * from member where id in (?) and name = ?");
+    }
+
+    @Test
+    public void header() throws Exception {
+        // given
+        saveMembersWithOwnTeam(1);
+
+        // when
+        MvcResult result = mockMvc.perform(get("/members3"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        String count = result.getResponse().getHeader(SqlStatementCountFilter.HEADER);
+        assertThat(count).isNotNull();
+        assertThat(Integer.parseInt(count)).isGreaterThanOrEqualTo(1);
+        assertThat(result.getResponse().getContentAsString()).contains("member0");
+    }
+}
@@ -0,0 +1,111 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitor.SqlStatementMonitor;
+import study.datajpa.monitor.SqlStatementStats;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 배치 페치 (datajpa.batch.fetch-size=100, batch_fetch_style=padded)
+ * 지연 로딩이 엔티티 수만큼이 아니라 IN (...) 쿼리 몇 번으로 끝나는지 SQL 실행 횟수로 확인한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batch-fetch")
+@Transactional
+class BatchFetchTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    SqlStatementMonitor sqlStatementMonitor;
+
+    @Autowired
+    EntityManager em;
+
+    /**
+     * 팀 teamCount 개, 팀마다 회원 membersPerTeam 명
+     */
+    private void saveTeams(int teamCount, int membersPerTeam) {
+        List<Team> teams = teamRepository.saveAll(IntStream.range(0, teamCount)
+                .mapToObj(i -> new Team("batchTeam" + i))
+                .collect(Collectors.toList()));
+        memberRepository.bulkInsert(IntStream.range(0, teamCount * membersPerTeam)
+                .mapToObj(i -> new Member("batchMember" + i, i % 100, teams.get(i % teamCount))));
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * 회원 60명 -> 팀 30개 프록시를 한번에 초기화 (30건은 50 크기 쿼리 하나로 채운다)
+     */
+    @Test
+    public void memberTeam() {
+        saveTeams(30, 2);
+
+        SqlStatementStats stats = sqlStatementMonitor.begin("memberTeam", 0);
+        try {
+            List<Member> members = memberRepository.findMemberCustom();
+            assertThat(members).hasSize(60);
+            members.forEach(member -> member.getTeam().getName());
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+
+        assertThat(stats.getCount()).isEqualTo(2);
+    }
+
+    /**
+     * 팀 30개 -> 회원 컬렉션 30개를 한번에 초기화
+     */
+    @Test
+    public void teamMembers() {
+        saveTeams(30, 2);
+
+        SqlStatementStats stats = sqlStatementMonitor.begin("teamMembers", 0);
+        try {
+            List<Team> teams = teamRepository.findAll();
+            assertThat(teams).hasSize(30);
+            assertThat(teams).allSatisfy(team -> assertThat(team.getMembers()).hasSize(2));
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+
+        assertThat(stats.getCount()).isEqualTo(2);
+    }
+
+    /**
+     * 한 페이지 2000 건, 팀 200 개 -> 페이지 + count + 팀 100 개씩 2번
+     */
+    @Test
+    public void pageOf2000() {
+        saveTeams(200, 10);
+
+        SqlStatementStats stats = sqlStatementMonitor.begin("pageOf2000", 0);
+        try {
+            Page<Member> page = memberRepository.findAll(PageRequest.of(0, 2000));
+            assertThat(page.getContent()).hasSize(2000);
+            assertThat(page.getContent().stream().map(member -> member.getTeam().getName()).distinct()).hasSize(200);
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+
+        assertThat(stats.getCount()).isEqualTo(4);
+        assertThat(stats.getRepeatedSelects(3)).isEmpty();
+    }
+}
@@ -0,0 +1,99 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.monitor.SqlStatementMonitor;
+import study.datajpa.monitor.SqlStatementStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * findByNames : IN 파라미터 패딩(in_clause_parameter_padding) + chunk-size 단위 분할 조회
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:in-clause",
+        "datajpa.in-clause.chunk-size=1024"})
+@Import(SqlCapture.class)
+@Transactional
+class InClauseTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    SqlStatementMonitor sqlStatementMonitor;
+
+    @Autowired
+    SqlCapture sqlCapture;
+
+    private List<String> saveMembers(int count) {
+        List<String> names = IntStream.range(0, count).mapToObj(i -> "inMember" + i).collect(Collectors.toList());
+        memberRepository.bulkInsert(names.stream().map(name -> new Member(name, 10)));
+        return names;
+    }
+
+    /**
+     * 파라미터 3개, 4개 -> 둘 다 4개로 채워서 같은 SQL 이 나간다.
+     */
+    @Test
+    public void padding() {
+        saveMembers(4);
+
+        List<String> three = sqlCapture.capture(() -> memberRepository.findByNames(Arrays.asList("inMember0", "inMember1", "inMember2")));
+        List<String> four = sqlCapture.capture(() -> memberRepository.findByNames(Arrays.asList("inMember0", "inMember1", "inMember2", "inMember3")));
+
+        assertThat(three).hasSize(1);
+        assertThat(four).hasSize(1);
+        assertThat(placeholders(three.get(0))).isEqualTo(4);
+        assertThat(placeholders(four.get(0))).isEqualTo(4);
+    }
+
+    /**
+     * 3000 명 -> 1024 개씩 3번 조회
+     */
+    @Test
+    public void chunks() {
+        List<String> names = saveMembers(3000);
+        List<String> lookup = new ArrayList<>(names);
+        lookup.addAll(names.subList(0, 100)); // 중복은 한 번만 조회
+        lookup.add("noSuchMember");
+
+        SqlStatementStats stats = sqlStatementMonitor.begin("chunks", 0);
+        List<Member> members;
+        try {
+            members = memberRepository.findByNames(lookup);
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(members).extracting("username").containsExactlyInAnyOrderElementsOf(names);
+    }
+
+    @Test
+    public void empty() {
+        List<String> statements = sqlCapture.capture(() ->
+                assertThat(memberRepository.findByNames(Collections.emptyList())).isEmpty());
+
+        assertThat(statements).isEmpty();
+    }
+
+    /**
+     * getSqlWithValues() 는 ? 를 값으로 바꾸므로 in (...) 안의 값 개수를 센다.
+     */
+    private static int placeholders(String sql) {
+        String in = sql.substring(sql.indexOf(" in (") + 5);
+        return in.substring(0, in.indexOf(')')).split(",").length;
+    }
+}
@@ -3,9 +3,15 @@ package study.datajpa.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Item;
+import study.datajpa.monitor.SqlStatementMonitor;
+import study.datajpa.monitor.SqlStatementStats;
 
-import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest
 class ItemRepositoryTest {
@@ -13,6 +19,9 @@ class ItemRepositoryTest {
     @Autowired
     ItemRepository itemRepository;
 
+    @Autowired
+    SqlStatementMonitor sqlStatementMonitor;
+
 
     @Test
     public void save() throws Exception {
@@ -20,4 +29,31 @@ class ItemRepositoryTest {
         itemRepository.save(item);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional
+    public void upsertAll() throws Exception {
+        // given
+        String id1 = UUID.randomUUID().toString();
+        String id2 = UUID.randomUUID().toString();
+        String id3 = UUID.randomUUID().toString();
+        itemRepository.upsertAll(Arrays.asList(new Item(id1), new Item(id2)));
+
+        // when
+        SqlStatementStats stats = sqlStatementMonitor.begin("upsertAll", 0);
+        int inserted;
+        try {
+            inserted = itemRepository.upsertAll(Arrays.asList(new Item(id1), new Item(id2), new Item(id3)));
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+
+        // then
+        assertThat(inserted).isEqualTo(1); // id3 만 새로 저장
+        assertThat(stats.getSelectCounts()).isEmpty(); // merge() 처럼 select 하지 않는다.
+        assertThat(stats.getCount()).isEqualTo(1); // JDBC 배치 한번
+        assertThat(itemRepository.findAllById(Arrays.asList(id1, id2, id3)))
+                .hasSize(3)
+                .allMatch(item -> !item.isNew());
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitor.SqlStatementMonitor;
+import study.datajpa.monitor.SqlStatementStats;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * bulkInsert() 가 JDBC 배치로 저장하고 영속성 컨텍스트를 비우는지 확인한다.
+ * (초당 저장 건수 비교는 SaveBenchmark)
+ */
+@SpringBootTest
+@Transactional
+class MemberBulkInsertTest {
+
+    static final int ROWS = 250;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    SqlStatementMonitor sqlStatementMonitor;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Value("${datajpa.batch.size}")
+    int batchSize;
+
+    @Test
+    public void bulkInsert() throws Exception {
+        // given
+        Team team = teamRepository.save(new Team("bulkTeam"));
+        em.flush();
+        long before = memberRepository.count();
+
+        // when
+        SqlStatementStats stats = sqlStatementMonitor.begin("bulkInsert", 0);
+        long inserted;
+        try {
+            inserted = memberRepository.bulkInsert(IntStream.range(0, ROWS)
+                    .mapToObj(i -> new Member("bulk" + i, i % 100, team)));
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+
+        // then
+        int batches = (ROWS + batchSize - 1) / batchSize;
+        int sequenceCalls = ROWS / 50 + 1; // pooled-lo : 시퀀스 한번에 식별자 50개
+        assertThat(inserted).isEqualTo(ROWS);
+        assertThat(stats.getCount()).isLessThanOrEqualTo(batches + sequenceCalls); // insert 는 배치마다 한번
+        assertThat(em.contains(team)).isFalse(); // 영속성 컨텍스트가 비워졌다.
+        assertThat(memberRepository.count()).isEqualTo(before + ROWS);
+    }
+}
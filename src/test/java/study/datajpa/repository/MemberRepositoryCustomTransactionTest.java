@@ -0,0 +1,98 @@
+package study.datajpa.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.CountStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * MemberRepositoryCustom 에 선언한 조회 메소드도 읽기 전용 트랜잭션에서 실행되는지 확인한다.
+ * -> SQL 을 실행할 때마다 현재 트랜잭션의 읽기 전용 여부를 기록한다.
+ * <p>
+ * 테스트 트랜잭션에 참여하지 않도록 트랜잭션 없이 실행한다. (별도의 메모리 DB)
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:custom-read-only")
+@Import(MemberRepositoryCustomTransactionTest.ReadOnlyCapture.class)
+class MemberRepositoryCustomTransactionTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ReadOnlyCapture readOnlyCapture;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    /**
+     * SQL 마다 "트랜잭션 안 && 읽기 전용" 여부를 모은다.
+     */
+    static class ReadOnlyCapture extends SimpleJdbcEventListener {
+
+        private volatile List<Boolean> readOnly;
+
+        List<Boolean> capture(Runnable call) {
+            readOnly = Collections.synchronizedList(new ArrayList<>());
+            try {
+                call.run();
+                return new ArrayList<>(readOnly);
+            } finally {
+                readOnly = null;
+            }
+        }
+
+        @Override
+        public void onBeforeAnyExecute(StatementInformation statementInformation) {
+            List<Boolean> current = readOnly;
+            if (current != null) {
+                current.add(TransactionSynchronizationManager.isActualTransactionActive()
+                        && TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            }
+        }
+    }
+
+    @Test
+    public void customQueriesRunReadOnly() {
+        memberRepository.save(new Member("custom", 10));
+
+        assertReadOnly(() -> memberRepository.findMemberCustom());
+        assertReadOnly(() -> memberRepository.findDtoByUsername("custom"));
+        assertReadOnly(() -> memberRepository.findByNames(List.of("custom")));
+        assertReadOnly(() -> memberRepository.findKeysetPage(null, 10));
+        assertReadOnly(() -> memberRepository.findKeysetPageByAge(10, null, 10));
+        assertReadOnly(() -> memberRepository.findPage(PageRequest.of(0, 10), CountStrategy.EXACT));
+        assertReadOnly(() -> memberRepository.findPageByAge(10, PageRequest.of(0, 10), CountStrategy.EXACT));
+        assertReadOnly(() -> memberRepository.findDtoPage(PageRequest.of(0, 10), CountStrategy.EXACT));
+    }
+
+    /**
+     * 저장하는 메소드는 @Transactional 로 읽기 전용을 덮어쓴다.
+     */
+    @Test
+    public void bulkInsertIsNotReadOnly() {
+        List<Boolean> readOnly = readOnlyCapture.capture(
+                () -> memberRepository.bulkInsert(Stream.of(new Member("bulk", 10))));
+
+        assertThat(readOnly).isNotEmpty().containsOnly(false);
+    }
+
+    private void assertReadOnly(Runnable call) {
+        assertThat(readOnlyCapture.capture(call)).isNotEmpty().containsOnly(true);
+    }
+}
@@ -1,6 +1,7 @@
 package study.datajpa.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -10,12 +11,17 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.monitor.SqlStatementMonitor;
+import study.datajpa.monitor.SqlStatementStats;
+import study.datajpa.repository.support.CountStrategy;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +39,9 @@ public class MemberRepositoryTest {
     @Autowired
     TeamRepository teamRepository;
 
+    @Autowired
+    SqlStatementMonitor sqlStatementMonitor;
+
     @PersistenceContext
     EntityManager em;
 
@@ -286,6 +295,39 @@ public class MemberRepositoryTest {
         assertThat(page2.hasNext()).isTrue(); //다음 페이지가 있는가?
     }
 
+    /**
+     * findSliceByAge 는 age 조건으로 size + 1 개만 조회한다. (count 쿼리 없음)
+     */
+    @Test
+    @Rollback
+    public void slicingByAge() throws Exception {
+        // given
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("slice" + i, 81));
+        }
+        memberRepository.save(new Member("slice9", 82));
+        em.flush();
+        em.clear();
+
+        // when
+        SqlStatementStats stats = sqlStatementMonitor.begin("slicingByAge", 0);
+        Slice<Member> first;
+        Slice<Member> last;
+        try {
+            first = memberRepository.findSliceByAge(81, PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username")));
+            last = memberRepository.findSliceByAge(81, first.nextPageable());
+        } finally {
+            sqlStatementMonitor.end(stats);
+        }
+
+        // then
+        assertThat(stats.getCount()).isEqualTo(2);
+        assertThat(first.getContent()).extracting("username").containsExactly("slice4", "slice3", "slice2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("username").containsExactly("slice1", "slice0");
+        assertThat(last.hasNext()).isFalse();
+    }
+
     @Test
     public void bulkUpdate() throws Exception {
         //given
@@ -525,4 +567,151 @@ public class MemberRepositoryTest {
         Assertions.assertThat(result.size()).isEqualTo(1);
 
     }
+
+    /**
+     * 클래스 프로젝션 (select new), 중첩 인터페이스 프로젝션, Tuple -> 생성자
+     */
+    @Test
+    @Rollback
+    public void classProjections() throws Exception {
+        Team teamA = new Team("projectionTeam");
+        em.persist(teamA);
+        em.persist(new Member("projection1", 0, teamA));
+        em.persist(new Member("projection2", 0)); // 팀 없음
+        em.flush();
+        em.clear();
+
+        List<UsernameOnlyDto> dtos = memberRepository.findUsernameDtoByUsername("projection1");
+        assertThat(dtos).extracting(UsernameOnlyDto::getUsername).containsExactly("projection1");
+
+        List<MemberSummary> summaries = memberRepository.findSummaryByUsername("projection1");
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.get(0).getTeam().getName()).isEqualTo("projectionTeam");
+
+        assertThat(memberRepository.findDtoByUsername("projection1"))
+                .extracting(MemberDto::getUsername, MemberDto::getTeamName)
+                .containsExactly(tuple("projection1", "projectionTeam"));
+        assertThat(memberRepository.findDtoByUsername("projection2"))
+                .extracting(MemberDto::getUsername, MemberDto::getTeamName)
+                .containsExactly(tuple("projection2", null));
+    }
+
+    /**
+     * 키셋 페이징으로 끝까지 조회한 결과는
+     * username desc, id desc 로 정렬한 전체 조회 결과와 같아야 한다.
+     * (다른 테스트가 남긴 데이터가 있어도 검증할 수 있도록 전체를 비교한다)
+     */
+    @Test
+    @Rollback
+    public void keysetPaging() throws Exception {
+        // given
+        memberRepository.save(new Member("keyset1", 10));
+        memberRepository.save(new Member("keyset2", 10));
+        memberRepository.save(new Member("keyset2", 20)); // username 이 같으면 id 로 순서를 정한다
+        memberRepository.save(new Member("keyset3", 10));
+        memberRepository.save(new Member("keyset4", 10));
+
+        // when
+        List<Member> scrolled = new ArrayList<>();
+        MemberCursor cursor = null;
+        Slice<Member> slice;
+        do {
+            slice = memberRepository.findKeysetPage(cursor, 2);
+            scrolled.addAll(slice.getContent());
+            if (slice.hasContent()) {
+                cursor = MemberCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1));
+                // 토큰으로 변환해도 같은 위치를 가리켜야 한다.
+                assertThat(MemberCursor.decode(cursor.encode())).isEqualTo(cursor);
+            }
+        } while (slice.hasNext());
+
+        // then
+        List<Member> expected = memberRepository.findAll(
+                Sort.by(Sort.Direction.DESC, "username").and(Sort.by(Sort.Direction.DESC, "id")));
+        expected.removeIf(member -> member.getUsername() == null);
+        assertThat(scrolled).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @Rollback
+    public void keysetPagingByAge() throws Exception {
+        // given
+        memberRepository.save(new Member("ageKeyset1", 83));
+        memberRepository.save(new Member("ageKeyset2", 83));
+        memberRepository.save(new Member("ageKeyset2", 83));
+        memberRepository.save(new Member("ageKeyset3", 84)); // 다른 나이
+        memberRepository.save(new Member("ageKeyset4", 83));
+
+        // when
+        List<Member> scrolled = new ArrayList<>();
+        MemberCursor cursor = null;
+        Slice<Member> slice;
+        do {
+            slice = memberRepository.findKeysetPageByAge(83, cursor, 2);
+            scrolled.addAll(slice.getContent());
+            if (slice.hasContent()) {
+                cursor = MemberCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1));
+            }
+        } while (slice.hasNext());
+
+        // then
+        List<Member> expected = memberRepository.findAll(
+                Sort.by(Sort.Direction.DESC, "username").and(Sort.by(Sort.Direction.DESC, "id")));
+        expected.removeIf(member -> member.getAge() != 83);
+        assertThat(scrolled).hasSize(4).containsExactlyElementsOf(expected);
+    }
+
+    /**
+     * CACHED 전략은 count 결과를 캐시하지만, 회원을 저장하면 캐시를 비우고 다시 count 한다.
+     */
+    @Test
+    @Rollback
+    public void pagingCountStrategy() throws Exception {
+        // given
+        int age = 77;
+        memberRepository.save(new Member("count1", age));
+        memberRepository.save(new Member("count2", age));
+        memberRepository.save(new Member("count3", age));
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username"));
+
+        // when
+        Page<Member> cached = memberRepository.findPageByAge(age, pageRequest, CountStrategy.CACHED);
+        memberRepository.save(new Member("count4", age));
+        Page<Member> afterSave = memberRepository.findPageByAge(age, pageRequest, CountStrategy.CACHED);
+        Page<Member> exact = memberRepository.findPageByAge(age, pageRequest, CountStrategy.EXACT);
+
+        // then
+        assertThat(cached.getContent()).extracting("username").containsExactly("count3", "count2");
+        assertThat(cached.getTotalElements()).isEqualTo(3);
+        assertThat(afterSave.getTotalElements()).isEqualTo(4);
+        assertThat(exact.getTotalElements()).isEqualTo(4);
+        assertThat(memberRepository.findPage(pageRequest, CountStrategy.ESTIMATED).getTotalElements())
+                .isGreaterThanOrEqualTo(2);
+    }
+
+    /**
+     * [DTO 페이징]
+     * 팀이 없는 회원도 조회되고(left join), 팀 이름을 지연 로딩 없이 함께 조회한다.
+     */
+    @Test
+    @Rollback
+    public void findDtoPage() throws Exception {
+        // given
+        Team team = teamRepository.save(new Team("dtoTeam"));
+        memberRepository.save(new Member("zzzDto1", 10));
+        memberRepository.save(new Member("zzzDto2", 10, team));
+        memberRepository.save(new Member("zzzDto3", 10, team));
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+
+        // when
+        Page<MemberDto> page = memberRepository.findDtoPage(pageRequest, CountStrategy.EXACT);
+
+        // then
+        assertThat(page.getContent()).extracting("username").containsExactly("zzzDto3", "zzzDto2", "zzzDto1");
+        assertThat(page.getContent()).extracting("teamName").containsExactly("dtoTeam", "dtoTeam", null);
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
 }
@@ -0,0 +1,261 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.repository.support.CountStrategy;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * [실행 계획 회귀 테스트]
+ * <p>
+ * MemberRepository, MemberJpaRepository 의 조회/수정 메소드를 실행하면서 나간 SQL 을 모아서 H2 EXPLAIN 으로 실행 계획을 확인한다.
+ * -> 실행 계획에 tableScan 이 있으면 실패한다. (인덱스를 지우거나, 인덱스를 탈 수 없는 조건으로 쿼리를 바꾼 경우)
+ * -> 전체 조회가 목적인 메소드(FULL_SCAN)만 회원 테이블 전체를 읽을 수 있다. 조인한 팀은 항상 식별자로 조회해야 한다.
+ * <p>
+ * 새 쿼리 메소드를 추가하면 queries() 에 등록해야 한다. (allQueryMethodsCovered)
+ * <p>
+ * 테스트 데이터는 넣지 않는다. 단, 데이터가 없으면 구간 조회/수정을 실행하지 않는 메소드(COMMITTED_ROWS)는
+ * 별도 트랜잭션으로 회원을 커밋해두고 실행한 뒤 지운다. (테스트 트랜잭션을 보류하고 작업 스레드에서 조회/수정한다)
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query-plan")
+@Import(SqlCapture.class)
+@Transactional
+class QueryPlanTest {
+
+    /**
+     * 조건 없이 전체(또는 처음 몇 건)를 읽는 메소드
+     */
+    static final Set<String> FULL_SCAN = Set.of(
+            "findTop3HelloBy", "findTop3By", "findUsernameList", "findMemberDto", "findMemberFetchJoin",
+            "findAll", "findMemberEntityGraph", "findMemberCustom", "streamAll",
+            "MemberJpaRepository.findAll");
+
+    /**
+     * SQL 을 실행하지 않거나 insert/delete 만 하는 메소드
+     */
+    static final Set<String> NOT_QUERIES = Set.of(
+            "bulkInsert", "MemberJpaRepository.save", "MemberJpaRepository.delete");
+
+    /**
+     * 커밋된 회원이 있어야 실행되는 SQL (공백을 뺀 SQL 에 포함되어야 하는 문자열)
+     * -> scanPartitioned : 구간 조회 "id > ? and id <= ?", bulkAgePlusInChunks : 구간 update
+     */
+    static final Map<String, String> COMMITTED_ROWS = Map.of(
+            "scanPartitioned", "member_id<=",
+            "bulkAgePlusInChunks", "updatememberset");
+
+    static final int COMMITTED_ROW_COUNT = 250;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private Map<String, Runnable> queries() {
+        Pageable byUsername = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "username"));
+        MemberCursor cursor = new MemberCursor("member5", 5L);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByUsernameAndAgeGreaterThan", () -> memberRepository.findByUsernameAndAgeGreaterThan("member1", 10));
+        queries.put("findTop3HelloBy", () -> memberRepository.findTop3HelloBy());
+        queries.put("findByUsername", () -> memberRepository.findByUsername("member1"));
+        queries.put("findUser", () -> memberRepository.findUser("member1", 10));
+        queries.put("findUsernameList", () -> memberRepository.findUsernameList());
+        queries.put("findMemberDto", () -> memberRepository.findMemberDto());
+        queries.put("findByNames", () -> memberRepository.findByNames(Arrays.asList("member1", "member2")));
+        queries.put("findListByUsername", () -> memberRepository.findListByUsername("member1"));
+        queries.put("findMemberByUsername", () -> memberRepository.findMemberByUsername("member1"));
+        queries.put("findOptionalByUsername", () -> memberRepository.findOptionalByUsername("member1"));
+        queries.put("findByAge", () -> memberRepository.findByAge(10, byUsername));
+        queries.put("findSliceByAge", () -> memberRepository.findSliceByAge(10, byUsername));
+        queries.put("findTop3By", () -> memberRepository.findTop3By());
+        queries.put("bulkAgePlus", () -> memberRepository.bulkAgePlus(90));
+        queries.put("findMemberFetchJoin", () -> memberRepository.findMemberFetchJoin());
+        queries.put("findAll", () -> memberRepository.findAll());
+        queries.put("findMemberEntityGraph", () -> memberRepository.findMemberEntityGraph());
+        queries.put("findEntityGraphByUsername", () -> memberRepository.findEntityGraphByUsername("member1"));
+        queries.put("findReadOnlyByUsername", () -> memberRepository.findReadOnlyByUsername("member1"));
+        queries.put("findLockByUsername", () -> memberRepository.findLockByUsername("member1"));
+        queries.put("findProjectionsByUsername", () -> memberRepository.findProjectionsByUsername("member1"));
+        queries.put("findUsernameDtoByUsername", () -> memberRepository.findUsernameDtoByUsername("member1"));
+        queries.put("findSummaryByUsername", () -> memberRepository.findSummaryByUsername("member1"));
+
+        // MemberRepositoryCustom
+        queries.put("findMemberCustom", () -> memberRepository.findMemberCustom());
+        queries.put("findDtoByUsername", () -> memberRepository.findDtoByUsername("member1"));
+        queries.put("findKeysetPage", () -> {
+            memberRepository.findKeysetPage(null, 10);
+            memberRepository.findKeysetPage(cursor, 10);
+        });
+        queries.put("findKeysetPageByAge", () -> {
+            memberRepository.findKeysetPageByAge(10, null, 10);
+            memberRepository.findKeysetPageByAge(10, cursor, 10);
+        });
+        queries.put("findPage", () -> memberRepository.findPage(byUsername, CountStrategy.EXACT));
+        queries.put("findPageByAge", () -> memberRepository.findPageByAge(10, byUsername, CountStrategy.EXACT));
+        queries.put("findDtoPage", () -> memberRepository.findDtoPage(byUsername, CountStrategy.EXACT));
+        queries.put("streamAll", () -> {
+            try (Stream<?> stream = memberRepository.streamAll(100)) {
+                stream.forEach(member -> {
+                });
+            }
+        });
+        queries.put("scanPartitioned", () -> {
+            try (Stream<?> stream = memberRepository.scanPartitioned(2)) {
+                stream.forEach(member -> {
+                });
+            }
+        });
+        queries.put("bulkAgePlusInChunks", () -> memberRepository.bulkAgePlusInChunks(90, 100));
+
+        // MemberJpaRepository
+        queries.put("MemberJpaRepository.findAll", () -> memberJpaRepository.findAll());
+        queries.put("MemberJpaRepository.findById", () -> memberJpaRepository.findById(1L));
+        queries.put("MemberJpaRepository.count", () -> memberJpaRepository.count());
+        queries.put("MemberJpaRepository.find", () -> memberJpaRepository.find(1L));
+        queries.put("MemberJpaRepository.findByUsernameAndAgeGreaterThan",
+                () -> memberJpaRepository.findByUsernameAndAgeGreaterThan("member1", 10));
+        queries.put("MemberJpaRepository.findByUsername", () -> memberJpaRepository.findByUsername("member1"));
+        queries.put("MemberJpaRepository.findByPage", () -> memberJpaRepository.findByPage(10, 0, 10));
+        queries.put("MemberJpaRepository.totalCount", () -> memberJpaRepository.totalCount(10));
+        queries.put("MemberJpaRepository.bulkAgePlus", () -> memberJpaRepository.bulkAgePlus(90));
+        return queries;
+    }
+
+    @Test
+    public void noTableScan() {
+        List<String> violations = new ArrayList<>();
+        queries().forEach((name, call) -> {
+            List<String> statements = COMMITTED_ROWS.containsKey(name)
+                    ? captureWithCommittedMembers(call)
+                    : sqlCapture.capture(call);
+            assertThat(statements).as(name + " 가 SQL 을 실행하지 않았습니다.").isNotEmpty();
+            if (COMMITTED_ROWS.containsKey(name)) {
+                assertThat(statements).as(name + " 가 구간 SQL 을 실행하지 않았습니다.")
+                        .anyMatch(sql -> sql.replace(" ", "").toLowerCase(Locale.ROOT).contains(COMMITTED_ROWS.get(name)));
+            }
+            for (String sql : statements) {
+                if (!isQuery(sql)) {
+                    continue;
+                }
+                String plan = explain(sql);
+                boolean memberScan = plan.contains("MEMBER.tableScan") && !FULL_SCAN.contains(name);
+                boolean teamScan = plan.contains("TEAM.tableScan");
+                if (memberScan || teamScan) {
+                    violations.add(name + "\n" + plan);
+                }
+            }
+        });
+
+        assertThat(violations).as("tableScan").isEmpty();
+    }
+
+    /**
+     * 인덱스를 타는지 확인하는 테스트 자체가 동작하는지 확인한다. (인덱스가 없는 컬럼 조건)
+     */
+    @Test
+    public void detectTableScan() {
+        assertThat(explain("select * from member where created_date is null")).contains("MEMBER.tableScan");
+        assertThat(explain("select * from member order by username desc limit 10"))
+                .contains("IDX_MEMBER_USERNAME").contains("index sorted");
+        assertThat(explain("select * from team where name = 'teamA'")).contains("IDX_TEAM_NAME");
+        assertThat(explain("select * from member where age = 10 and username <= 'member5' and (username < 'member5' or member_id < 5)" +
+                " order by age, username desc, member_id desc limit 10"))
+                .contains("IDX_MEMBER_AGE_USERNAME").contains("index sorted");
+    }
+
+    /**
+     * 나이 조건 키셋 페이징은 인덱스 순서로 읽어서 정렬하지 않는다.
+     */
+    @Test
+    public void keysetPageByAgeIndexSorted() {
+        List<String> statements = sqlCapture.capture(
+                () -> memberRepository.findKeysetPageByAge(10, new MemberCursor("member5", 5L), 10));
+
+        assertThat(statements).hasSize(1);
+        assertThat(explain(statements.get(0))).contains("IDX_MEMBER_AGE_USERNAME").contains("index sorted");
+    }
+
+    @Test
+    public void allQueryMethodsCovered() {
+        Set<String> declared = new HashSet<>();
+        for (Class<?> type : Arrays.asList(MemberRepository.class, MemberRepositoryCustom.class)) {
+            Arrays.stream(type.getDeclaredMethods())
+                    .filter(method -> !method.isDefault() && !method.isSynthetic())
+                    .map(Method::getName)
+                    .forEach(declared::add);
+        }
+        Arrays.stream(MemberJpaRepository.class.getDeclaredMethods())
+                .filter(method -> Modifier.isPublic(method.getModifiers()))
+                .map(method -> "MemberJpaRepository." + method.getName())
+                .forEach(declared::add);
+
+        Set<String> covered = new HashSet<>(queries().keySet());
+        covered.addAll(NOT_QUERIES);
+        assertThat(covered).containsExactlyInAnyOrderElementsOf(declared);
+    }
+
+    /**
+     * 회원을 별도 트랜잭션으로 커밋하고 call 을 실행한 뒤 지운다. (나이 90 -> bulkAgePlusInChunks(90, ...) 의 대상)
+     */
+    private List<String> captureWithCommittedMembers(Runnable call) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "insert into member (member_id, username, age, version) values (next value for member_seq, ?, 90, 0)",
+                IntStream.range(0, COMMITTED_ROW_COUNT)
+                        .mapToObj(i -> new Object[]{"committed" + i})
+                        .collect(Collectors.toList())));
+        try {
+            return sqlCapture.capture(call);
+        } finally {
+            requiresNew.executeWithoutResult(status -> jdbcTemplate.update("delete from member where username like 'committed%'"));
+        }
+    }
+
+    private static boolean isQuery(String sql) {
+        String lower = sql.trim().toLowerCase(Locale.ROOT);
+        return lower.startsWith("select") || lower.startsWith("update") || lower.startsWith("delete");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForList("explain " + sql, String.class).stream()
+                .collect(Collectors.joining("\n"));
+    }
+}
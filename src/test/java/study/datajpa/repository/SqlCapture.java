@@ -0,0 +1,34 @@
+package study.datajpa.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * capture() 안에서 실행된 SQL 을 파라미터 값을 채운 문자열로 모은다. (p6spy, 테스트에서 @Import 로 등록)
+ */
+class SqlCapture extends SimpleJdbcEventListener {
+
+    private volatile List<String> statements;
+
+    List<String> capture(Runnable call) {
+        statements = Collections.synchronizedList(new ArrayList<>());
+        try {
+            call.run();
+            return new ArrayList<>(statements);
+        } finally {
+            statements = null;
+        }
+    }
+
+    @Override
+    public void onBeforeAnyExecute(StatementInformation statementInformation) {
+        List<String> current = statements;
+        if (current != null) {
+            current.add(statementInformation.getSqlWithValues());
+        }
+    }
+}
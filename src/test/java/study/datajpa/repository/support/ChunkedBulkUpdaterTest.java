@@ -0,0 +1,118 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 구간마다 작업 스레드에서 커밋하므로 테스트 트랜잭션(롤백)을 사용하지 않는다.
+ * -> 별도의 메모리 DB 를 사용하고 테스트가 끝나면 지운다.
+ */
+@SpringBootTest(properties = {
+        "datajpa.cache.enabled=true",
+        "datajpa.bulk-update.threads=2",
+        "spring.datasource.url=jdbc:h2:mem:chunked-bulk-update"
+})
+class ChunkedBulkUpdaterTest {
+
+    static final int ROWS = 1000;
+
+    @Autowired
+    ChunkedBulkUpdater chunkedBulkUpdater;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    private void saveMembers() {
+        memberRepository.bulkInsert(IntStream.range(0, ROWS)
+                .mapToObj(i -> new Member("chunk" + i, i)));
+    }
+
+    private List<Integer> ages() {
+        return jdbcTemplate.queryForList("select age from member order by member_id", Integer.class);
+    }
+
+    @Test
+    public void bulkAgePlusInChunks() throws Exception {
+        // given
+        saveMembers();
+
+        // when
+        long updated = memberRepository.bulkAgePlusInChunks(500, 100);
+
+        // then
+        assertThat(updated).isEqualTo(500);
+        List<Integer> ages = ages();
+        for (int i = 0; i < ROWS; i++) {
+            assertThat(ages.get(i)).isEqualTo(i >= 500 ? i + 1 : i);
+        }
+    }
+
+    @Test
+    public void resumeAfterFailure() throws Exception {
+        // given : age 가 500 인 회원에서 0 으로 나누기 오류가 난다.
+        saveMembers();
+        BulkUpdateJob job = BulkUpdateJob.builder()
+                .name("resume")
+                .table("member")
+                .idColumn("member_id")
+                .setClause("age = age + 1 + 0 / (age - 500)")
+                .chunkSize(100)
+                .build();
+
+        // when
+        assertThatThrownBy(() -> chunkedBulkUpdater.execute(job))
+                .isInstanceOf(BulkUpdateException.class);
+        BulkUpdateProgress failed = chunkedBulkUpdater.getProgress("resume");
+        assertThat(failed.getTotalChunks()).isEqualTo(10);
+        assertThat(failed.getCompletedChunks()).isLessThan(10);
+
+        jdbcTemplate.update("update member set age = 1500 where username = 'chunk500'");
+        BulkUpdateProgress resumed = chunkedBulkUpdater.execute(job);
+
+        // then : 완료된 구간은 다시 수정하지 않는다. -> 모든 회원이 정확히 한번씩 수정된다.
+        assertThat(resumed.isDone()).isTrue();
+        assertThat(resumed.getUpdatedRows()).isEqualTo(ROWS);
+        assertThat(chunkedBulkUpdater.getProgress("resume")).isNull();
+        List<Integer> ages = ages();
+        for (int i = 0; i < ROWS; i++) {
+            assertThat(ages.get(i)).isEqualTo(i == 500 ? 1501 : i + 1);
+        }
+    }
+
+    @Test
+    public void evictUpdatedMembers() throws Exception {
+        // given : 회원을 2차 캐시에 올린다.
+        saveMembers();
+        Long id = memberRepository.findByUsername("chunk700").get(0).getId();
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(id));
+
+        // when
+        memberRepository.bulkAgePlusInChunks(500, 100);
+
+        // then : 캐시가 아닌 수정된 값을 읽는다.
+        Integer age = transactionTemplate.execute(status -> memberRepository.findById(id).get().getAge());
+        assertThat(age).isEqualTo(701);
+    }
+}
@@ -0,0 +1,47 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CountCacheTest {
+
+    @Test
+    public void cacheUntilInvalidated() throws Exception {
+        // given
+        CountCache countCache = new CountCache(Duration.ofMinutes(1));
+        AtomicLong queryCount = new AtomicLong();
+
+        // when
+        long first = countCache.get("Member:findAll", () -> queryCount.incrementAndGet() * 10);
+        long second = countCache.get("Member:findAll", () -> queryCount.incrementAndGet() * 10);
+        countCache.invalidate("Team"); // 다른 엔티티의 캐시만 비운다
+        long third = countCache.get("Member:findAll", () -> queryCount.incrementAndGet() * 10);
+        countCache.invalidate("Member");
+        long fourth = countCache.get("Member:findAll", () -> queryCount.incrementAndGet() * 10);
+
+        // then
+        assertThat(first).isEqualTo(10);
+        assertThat(second).isEqualTo(10);
+        assertThat(third).isEqualTo(10);
+        assertThat(fourth).isEqualTo(20);
+        assertThat(queryCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void expireAfterTtl() throws Exception {
+        // given
+        CountCache countCache = new CountCache(Duration.ZERO);
+        AtomicLong queryCount = new AtomicLong();
+
+        // when
+        countCache.get("Member:findAll", queryCount::incrementAndGet);
+        countCache.get("Member:findAll", queryCount::incrementAndGet);
+
+        // then
+        assertThat(queryCount.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,177 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * flush 는 별도 트랜잭션으로 커밋하므로 테스트 트랜잭션(롤백)을 사용하지 않는다.
+ * -> 별도의 메모리 DB 를 사용하고 테스트가 끝나면 지운다.
+ * -> 주기적인 flush 는 테스트 중에 실행되지 않도록 길게 잡고 flush() 를 직접 호출한다.
+ */
+@SpringBootTest(properties = {
+        "datajpa.coalescer.flush-interval=1h",
+        "spring.datasource.url=jdbc:h2:mem:age-coalescer"
+})
+class MemberAgeCoalescerTest {
+
+    @Autowired
+    MemberAgeCoalescer memberAgeCoalescer;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @AfterEach
+    public void tearDown() {
+        memberAgeCoalescer.flush();
+        memberRepository.deleteAllInBatch();
+    }
+
+    /**
+     * 4 스레드 x 회원 3명 x 1000번 -> flush 한번에 update 3개
+     */
+    @Test
+    public void coalesceConcurrentIncrements() throws Exception {
+        List<Member> members = memberRepository.saveAll(List.of(
+                new Member("hot1", 0), new Member("hot2", 0), new Member("hot3", 0)));
+        long increments = memberAgeCoalescer.getIncrements();
+        long rows = memberAgeCoalescer.getFlushedRows();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        memberAgeCoalescer.add(members.get(i % 3).getId(), 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // flush 전에는 DB 에 반영되지 않는다.
+        assertThat(memberRepository.findById(members.get(0).getId()).get().getAge()).isZero();
+        assertThat(memberAgeCoalescer.getPending()).isGreaterThanOrEqualTo(3);
+
+        assertThat(memberAgeCoalescer.flush()).isEqualTo(3);
+
+        assertThat(memberAgeCoalescer.getIncrements() - increments).isEqualTo(4000);
+        assertThat(memberAgeCoalescer.getFlushedRows() - rows).isEqualTo(3);
+        assertThat(memberAgeCoalescer.getPending()).isZero();
+        assertThat(jdbcTemplate.queryForList("select age from member where username like 'hot%' order by username", Integer.class))
+                .containsExactly(1336, 1332, 1332);
+
+        // @Version 도 올린다.
+        assertThat(memberRepository.findById(members.get(0).getId()).get().getVersion()).isEqualTo(1L);
+    }
+
+    /**
+     * 더한 값이 0 이면 쓰지 않는다.
+     */
+    @Test
+    public void skipZeroDelta() {
+        Member member = memberRepository.save(new Member("zero", 10));
+        memberAgeCoalescer.add(member.getId(), 5);
+        memberAgeCoalescer.add(member.getId(), -5);
+
+        assertThat(memberAgeCoalescer.flush()).isZero();
+        assertThat(memberRepository.findById(member.getId()).get().getVersion()).isEqualTo(0L);
+    }
+
+    /**
+     * 실패하면 다음 flush 에서 다시 쓴다.
+     */
+    @Test
+    public void retryAfterFailure() {
+        Member member = memberRepository.save(new Member("retry", 10));
+        memberAgeCoalescer.add(member.getId(), 3);
+
+        jdbcTemplate.execute("alter table member rename column age to age_tmp");
+        try {
+            assertThatThrownBy(() -> memberAgeCoalescer.flush()).isInstanceOf(RuntimeException.class);
+        } finally {
+            jdbcTemplate.execute("alter table member rename column age_tmp to age");
+        }
+
+        assertThat(memberAgeCoalescer.flush()).isEqualTo(1);
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(13);
+    }
+
+    /**
+     * 커밋한 뒤 캐시 비우기가 실패해도 다시 쓰지 않는다. (두번 더하지 않는다)
+     */
+    @Test
+    public void noRetryAfterCommit() throws Exception {
+        Member member = memberRepository.save(new Member("committed", 10));
+        EntityManagerFactory failingCache = (EntityManagerFactory) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{EntityManagerFactory.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getCache")) {
+                        throw new IllegalStateException("cache unavailable");
+                    }
+                    try {
+                        return method.invoke(emf, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        MemberAgeCoalescer coalescer = new MemberAgeCoalescer(jdbcTemplate, transactionManager, failingCache,
+                new SimpleMeterRegistry(), Duration.ofHours(1), 2);
+        coalescer.add(member.getId(), 3);
+
+        assertThat(coalescer.flush()).isEqualTo(1);
+        assertThat(coalescer.getPending()).isZero();
+        assertThat(coalescer.flush()).isZero();
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(13);
+
+        coalescer.destroy();
+    }
+
+    /**
+     * 종료할 때 남은 값을 쓴다.
+     */
+    @Test
+    public void flushOnShutdown() throws Exception {
+        Member member = memberRepository.save(new Member("shutdown", 10));
+        MemberAgeCoalescer coalescer = new MemberAgeCoalescer(jdbcTemplate, transactionManager, emf,
+                new SimpleMeterRegistry(), Duration.ofHours(1), 2);
+        coalescer.add(member.getId(), 1);
+        coalescer.add(member.getId(), 1);
+
+        coalescer.destroy();
+
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(12);
+        assertThat(coalescer.getCoalescingRatio()).isEqualTo(2.0);
+    }
+}
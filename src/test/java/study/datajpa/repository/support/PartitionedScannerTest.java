@@ -0,0 +1,163 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 구간마다 작업 스레드의 트랜잭션에서 조회하므로 테스트 트랜잭션(롤백)을 사용하지 않는다.
+ * -> 별도의 메모리 DB 를 사용하고 테스트가 끝나면 지운다.
+ */
+@SpringBootTest(properties = {
+        "datajpa.scan.threads=3",
+        "datajpa.scan.batch-size=50",
+        "spring.datasource.url=jdbc:h2:mem:partitioned-scan"
+})
+class PartitionedScannerTest {
+
+    static final int ROWS = 1000;
+
+    @Autowired
+    PartitionedScanner partitionedScanner;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    private void saveMembers() {
+        Team team = teamRepository.save(new Team("scanTeam"));
+        memberRepository.bulkInsert(IntStream.range(0, ROWS)
+                .mapToObj(i -> new Member("scan" + i, i, i % 2 == 0 ? team : null)));
+    }
+
+    @Test
+    public void scanPartitioned() {
+        saveMembers();
+
+        List<MemberDto> members;
+        try (Stream<MemberDto> stream = memberRepository.scanPartitioned(4)) {
+            members = stream.collect(Collectors.toList());
+        }
+
+        assertThat(members).hasSize(ROWS);
+        assertThat(members).extracting("username").doesNotHaveDuplicates()
+                .containsAll(IntStream.range(0, ROWS).mapToObj(i -> "scan" + i).collect(Collectors.toList()));
+        assertThat(members.stream().filter(member -> "scanTeam".equals(member.getTeamName()))).hasSize(ROWS / 2);
+    }
+
+    @Test
+    public void empty() {
+        try (Stream<MemberDto> stream = memberRepository.scanPartitioned(0)) {
+            assertThat(stream).isEmpty();
+        }
+    }
+
+    /**
+     * 구간마다 다른 작업 스레드에서 조회하고, 구간 안에서는 id 순서다.
+     */
+    @Test
+    public void partitionsRunOnWorkerThreads() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        PartitionedScanner.RangeQuery<Long> query = new PartitionedScanner.RangeQuery<Long>() {
+            @Override
+            public long[] idRange() {
+                return new long[]{1, 300};
+            }
+
+            @Override
+            public List<Long> fetch(long afterId, long lastId, int limit) {
+                threads.add(Thread.currentThread().getName());
+                return IntStream.rangeClosed(1, limit).mapToObj(i -> afterId + i)
+                        .filter(id -> id <= lastId)
+                        .collect(Collectors.toList());
+            }
+
+            @Override
+            public long idOf(Long row) {
+                return row;
+            }
+        };
+
+        List<Long> ids;
+        try (Stream<Long> stream = partitionedScanner.scan(3, 40, query)) {
+            ids = stream.collect(Collectors.toList());
+        }
+
+        assertThat(ids).hasSize(300).doesNotHaveDuplicates();
+        assertThat(ids.stream().filter(id -> id <= 100)).isSorted();
+        assertThat(threads).hasSize(3).allMatch(name -> name.startsWith("partitioned-scan-"));
+    }
+
+    /**
+     * 구간 조회가 실패하면 읽는 쪽에서 같은 예외가 발생한다.
+     */
+    @Test
+    public void failure() {
+        PartitionedScanner.RangeQuery<Long> query = new PartitionedScanner.RangeQuery<Long>() {
+            @Override
+            public long[] idRange() {
+                return new long[]{1, 100};
+            }
+
+            @Override
+            public List<Long> fetch(long afterId, long lastId, int limit) {
+                if (afterId >= 50) {
+                    throw new IllegalStateException("scan failed");
+                }
+                return List.of(afterId + 1);
+            }
+
+            @Override
+            public long idOf(Long row) {
+                return row;
+            }
+        };
+
+        try (Stream<Long> stream = partitionedScanner.scan(2, 1, query)) {
+            assertThatThrownBy(() -> stream.forEach(id -> {
+            })).isInstanceOf(IllegalStateException.class).hasMessage("scan failed");
+        }
+    }
+
+    /**
+     * 읽다가 닫으면 남은 구간은 더 조회하지 않는다.
+     */
+    @Test
+    public void closeEarly() throws Exception {
+        saveMembers();
+
+        try (Stream<MemberDto> stream = memberRepository.scanPartitioned(2)) {
+            Iterator<MemberDto> iterator = stream.iterator();
+            assertThat(iterator.next()).isNotNull();
+        }
+
+        // 닫은 뒤에도 작업 스레드를 다시 사용할 수 있다.
+        try (Stream<MemberDto> stream = memberRepository.scanPartitioned(3)) {
+            assertThat(stream.count()).isEqualTo(ROWS);
+        }
+    }
+}
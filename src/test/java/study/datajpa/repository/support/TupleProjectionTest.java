@@ -0,0 +1,29 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+import study.datajpa.dto.MemberDto;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TupleProjectionTest {
+
+    static final TupleProjection<MemberDto> MEMBER_DTO =
+            TupleProjection.of(MemberDto.class, Long.class, String.class, String.class);
+
+    @Test
+    public void mapByPosition() {
+        MemberDto dto = MEMBER_DTO.map(new Object[]{1L, "member1", null});
+
+        assertThat(dto).isEqualTo(new MemberDto(1L, "member1", null));
+    }
+
+    /**
+     * 생성자가 없으면 만들 때 실패한다.
+     */
+    @Test
+    public void missingConstructor() {
+        assertThatThrownBy(() -> TupleProjection.of(MemberDto.class, String.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("(String)");
+    }
+}
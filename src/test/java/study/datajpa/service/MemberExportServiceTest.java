@@ -0,0 +1,89 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberExportServiceTest {
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void streamAll() throws Exception {
+        // given
+        Team team = new Team("exportTeam");
+        em.persist(team);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("export" + i, i, team));
+        }
+        em.flush();
+        em.clear();
+        long total = memberRepository.count();
+
+        // when
+        List<Member> members;
+        try (Stream<Member> stream = memberRepository.streamAll(3)) {
+            members = stream.collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(members).hasSize((int) total);
+        // fetchSize 마다 영속성 컨텍스트를 비우므로 앞에서 읽은 회원은 준영속 상태다.
+        assertThat(em.contains(members.get(0))).isFalse();
+        assertThat(members).filteredOn(m -> m.getUsername().startsWith("export"))
+                .extracting(m -> m.getTeam().getName())
+                .containsOnly("exportTeam");
+    }
+
+    @Test
+    public void exportNdjsonAndCsv() throws Exception {
+        // given
+        Team team = new Team("export,Team");
+        em.persist(team);
+        em.persist(new Member("exportMember", 10, team));
+        em.flush();
+        em.clear();
+        long total = memberRepository.count();
+
+        // when
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        long ndjsonCount = memberExportService.exportNdjson(ndjson);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long csvCount = memberExportService.exportCsv(csv);
+
+        // then
+        String[] jsonLines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(ndjsonCount).isEqualTo(total);
+        assertThat(jsonLines).hasSize((int) total);
+        assertThat(jsonLines).anyMatch(line -> line.contains("\"username\":\"exportMember\"")
+                && line.contains("\"teamName\":\"export,Team\""));
+
+        String[] csvLines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(csvCount).isEqualTo(total);
+        assertThat(csvLines[0]).isEqualTo("id,username,teamName");
+        assertThat(csvLines).anyMatch(line -> line.endsWith(",exportMember,\"export,Team\""));
+    }
+}
@@ -0,0 +1,148 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.OptimisticRetryExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 낙관적 락(@Version) + @OptimisticRetry
+ * 트랜잭션마다 커밋해야 충돌이 생기므로 테스트 트랜잭션 없이 실행하고 끝나면 지운다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:member-service")
+class MemberServiceTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    OptimisticRetryExecutor retryExecutor;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void versionIncrementsOnUpdate() {
+        Member saved = memberRepository.save(new Member("version", 10));
+        assertThat(saved.getVersion()).isEqualTo(0L);
+
+        memberService.addAge("version", 1);
+        assertThat(memberRepository.findById(saved.getId()).get().getVersion()).isEqualTo(1L);
+
+        memberRepository.bulkAgePlus(10);
+        Member member = memberRepository.findById(saved.getId()).get();
+        assertThat(member.getAge()).isEqualTo(12);
+        assertThat(member.getVersion()).isEqualTo(2L);
+    }
+
+    /**
+     * 첫 번째 실행 중에 다른 트랜잭션이 먼저 수정하면 -> 충돌, 새 트랜잭션으로 다시 읽어서 성공
+     */
+    @Test
+    public void retryAfterConflict() {
+        Member saved = memberRepository.save(new Member("conflict", 10));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger attempts = new AtomicInteger();
+        long conflicts = retryExecutor.getConflicts();
+
+        retryExecutor.execute(() -> transaction.execute(status -> {
+            Member member = memberRepository.findById(saved.getId()).get();
+            if (attempts.incrementAndGet() == 1) {
+                other.executeWithoutResult(otherStatus -> jdbcTemplate.update(
+                        "update member set age = age + 100, version = version + 1 where member_id = ?", saved.getId()));
+            }
+            member.setAge(member.getAge() + 1);
+            return null;
+        }));
+
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(retryExecutor.getConflicts() - conflicts).isEqualTo(1);
+        assertThat(memberRepository.findById(saved.getId()).get().getAge()).isEqualTo(111);
+    }
+
+    /**
+     * 트랜잭션 안에서 호출하면 다시 시도하지 않는다.
+     */
+    @Test
+    public void noRetryInsideTransaction() {
+        Member saved = memberRepository.save(new Member("inside", 10));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> transaction.execute(status -> retryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }))).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(memberRepository.findById(saved.getId())).isPresent();
+    }
+
+    /**
+     * 여러 스레드가 같은 회원을 수정해도 성공한 수정은 모두 반영된다. (lost update 없음)
+     */
+    @Test
+    public void concurrentUpdates() throws Exception {
+        Member saved = memberRepository.save(new Member("concurrent", 0));
+        int threads = 4;
+        int updatesPerThread = 10;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger succeeded = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < updatesPerThread; j++) {
+                        try {
+                            memberService.addAge("concurrent", 1);
+                            succeeded.incrementAndGet();
+                        } catch (OptimisticLockingFailureException e) {
+                            // 최대 횟수까지 충돌
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Member member = memberRepository.findById(saved.getId()).get();
+        assertThat(succeeded.get()).isGreaterThan(0);
+        assertThat(member.getAge()).isEqualTo(succeeded.get());
+        assertThat(member.getVersion()).isEqualTo(succeeded.get());
+    }
+}